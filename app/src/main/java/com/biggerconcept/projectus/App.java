@@ -9,8 +9,10 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import java.io.IOException;
+import java.util.List;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Projectus application
@@ -18,6 +20,18 @@ import java.util.ResourceBundle;
  * @author Andrew Bigger
  */
 public class App extends Application {
+    /**
+     * Listener for application configuration changes.
+     */
+    public interface ConfigListener {
+        /**
+         * Called when a configuration setting has been changed.
+         * 
+         * @param key name of changed setting
+         */
+        public void changed(String key);
+    }
+    
     /**
      * Default application locale.
      * 
@@ -30,6 +44,22 @@ public class App extends Application {
      */
     public static final String HELP_URL = "https://docs.biggerconcept.com/projectus";
     
+    /**
+     * Name of application configuration.
+     */
+    private static final String CONFIG_NAME = "com.biggerconcept.Projectus";
+    
+    /**
+     * Loaded application configuration.
+     */
+    private static volatile Config config;
+    
+    /**
+     * Listeners for configuration changes.
+     */
+    private static final List<ConfigListener> configListeners =
+            new CopyOnWriteArrayList<>();
+    
     /**
      * Starts Projectus
      * 
@@ -80,10 +110,57 @@ public class App extends Application {
     /**
      * Global application configuration
      * 
+     * The configuration is loaded once and shared. Settings should be
+     * changed with setConfig() so that listeners hear about the change.
+     * 
      * @return application configuration
      */
     public static Config config() {
-        return Config.load("com.biggerconcept.Projectus");
+        Config loaded = config;
+        
+        if (loaded == null) {
+            synchronized (App.class) {
+                if (config == null) {
+                    config = Config.load(CONFIG_NAME);
+                }
+                
+                loaded = config;
+            }
+        }
+        
+        return loaded;
+    }
+    
+    /**
+     * Changes an application configuration setting.
+     * 
+     * @param key name of setting
+     * @param value value to set
+     */
+    public static void setConfig(String key, boolean value) {
+        config().set(key, value);
+        
+        for (ConfigListener l : configListeners) {
+            l.changed(key);
+        }
+    }
+    
+    /**
+     * Adds a listener for configuration changes.
+     * 
+     * @param listener listener to add
+     */
+    public static void addConfigListener(ConfigListener listener) {
+        configListeners.add(listener);
+    }
+    
+    /**
+     * Removes a listener for configuration changes.
+     * 
+     * @param listener listener to remove
+     */
+    public static void removeConfigListener(ConfigListener listener) {
+        configListeners.remove(listener);
     }
 
 }
@@ -0,0 +1,271 @@
+package com.biggerconcept.projectus;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.domain.Epic;
+import com.biggerconcept.projectus.domain.Outlook;
+import com.biggerconcept.projectus.domain.Projection;
+import com.biggerconcept.projectus.domain.StatusSnapshot;
+import com.biggerconcept.projectus.persistence.DocumentMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless status summary of a directory of documents.
+ * 
+ * Every document in the directory is loaded, and the status of the
+ * document and the outlook of each of its epics are written out as JSON.
+ * Documents are processed in parallel on a pool with one thread per
+ * processor.
+ * 
+ * This does not start the user interface, so it can be run on a server.
+ * Documents are only read, so it can also be run over documents that are
+ * open in the application.
+ * 
+ * @author Andrew Bigger
+ */
+public class Batch {
+    /**
+     * Extension of document files.
+     */
+    public static final String DOCUMENT_EXTENSION = ".projectus";
+    
+    /**
+     * Directory of documents to summarise.
+     */
+    private final File directory;
+    
+    /**
+     * Number of threads to process documents on.
+     */
+    private final int threads;
+    
+    /**
+     * Constructor for batch.
+     * 
+     * @param directory directory of documents to summarise
+     * @param threads number of threads to process documents on
+     */
+    public Batch(File directory, int threads) {
+        this.directory = directory;
+        this.threads = threads;
+    }
+    
+    /**
+     * Summarises the documents in the directory.
+     * 
+     * Documents that can not be loaded are listed with the error, so one
+     * broken document does not stop the batch.
+     * 
+     * @return summary of documents, in file name order
+     * 
+     * @throws IOException when unable to read the directory
+     */
+    public ObjectNode run() throws IOException {
+        File[] files = directory.listFiles(
+                (dir, name) -> name.endsWith(DOCUMENT_EXTENSION)
+        );
+        
+        if (files == null) {
+            throw new IOException("Unable to read " + directory);
+        }
+        
+        Arrays.sort(files);
+        
+        ObjectMapper mapper = DocumentMapper.mapper();
+        ObjectNode summary = mapper.createObjectNode();
+        summary.put("directory", directory.getAbsolutePath());
+        
+        ArrayNode documents = summary.putArray("documents");
+        
+        if (files.length == 0) {
+            return summary;
+        }
+        
+        ExecutorService pool = Executors.newFixedThreadPool(
+                Math.min(threads, files.length)
+        );
+        
+        try {
+            List<Future<ObjectNode>> results = new ArrayList<>();
+            
+            for (File f : files) {
+                results.add(pool.submit(() -> summarise(f)));
+            }
+            
+            for (Future<ObjectNode> result : results) {
+                documents.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while summarising", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to summarise", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        return summary;
+    }
+    
+    /**
+     * Summarises a document.
+     * 
+     * @param file document file
+     * 
+     * @return document summary
+     */
+    private static ObjectNode summarise(File file) {
+        ObjectMapper mapper = DocumentMapper.mapper();
+        ObjectNode summary = mapper.createObjectNode();
+        summary.put("file", file.getName());
+        
+        Document doc;
+        
+        try {
+            doc = Document.read(file);
+        } catch (IOException | RuntimeException e) {
+            summary.put("error", String.valueOf(e.getMessage()));
+            return summary;
+        }
+        
+        summary.put("title", doc.getTitle());
+        summary.set("status", summarise(mapper, doc.statusSnapshot()));
+        
+        ArrayNode epics = summary.putArray("epics");
+        
+        for (Epic e : doc.getEpics()) {
+            epics.add(summarise(mapper, doc, e));
+        }
+        
+        return summary;
+    }
+    
+    /**
+     * Summarises the status of a document.
+     * 
+     * @param mapper mapper to build summary with
+     * @param status document status
+     * 
+     * @return status summary
+     */
+    private static ObjectNode summarise(
+            ObjectMapper mapper,
+            StatusSnapshot status
+    ) {
+        ObjectNode summary = mapper.createObjectNode();
+        summary.put("summary", status.summary().toString());
+        summary.put("totalPoints", status.totalPoints());
+        summary.put("completedPoints", status.completedPoints());
+        summary.put("pointsPerSprint", status.pointsPerSprint());
+        summary.put("idealPointsPerSprint", status.idealPointsPerSprint());
+        summary.put("availablePoints", status.availablePoints());
+        summary.put("overCommitted", status.isOverCommitted());
+        summary.put("totalSprints", status.totalSprints());
+        summary.put("sprintsElapsed", status.sprintsElapsed());
+        
+        return summary;
+    }
+    
+    /**
+     * Summarises the outlook of an epic.
+     * 
+     * @param mapper mapper to build summary with
+     * @param doc document the epic belongs to
+     * @param epic epic to summarise
+     * 
+     * @return epic summary
+     */
+    private static ObjectNode summarise(
+            ObjectMapper mapper,
+            Document doc,
+            Epic epic
+    ) {
+        Outlook outlook = epic
+                .getOutlook()
+                .calculated(doc.getPreferences(), epic, false);
+        
+        ObjectNode summary = mapper.createObjectNode();
+        summary.put("identifier", epic.getIdentifier());
+        summary.put("name", epic.getName());
+        summary.put("estimatePoints", outlook.getEstimatePoints());
+        summary.put("estimateWithBuffer", outlook.getEstimateWithBuffer());
+        summary.put("averagePoints", outlook.getAveragePoints());
+        summary.put("pointsPerSprint", outlook.getPointsPerSprint());
+        
+        ArrayNode projections = summary.putArray("projections");
+        
+        for (Projection p : outlook.projections()) {
+            if (p == null) {
+                continue;
+            }
+            
+            ObjectNode projection = projections.addObject();
+            projection.put("name", p.getName());
+            projection.put("adjustment", p.getAdjustment());
+            projection.put("sprints", p.getSprints());
+            projection.put("weeks", p.getWeeks());
+        }
+        
+        return summary;
+    }
+    
+    /**
+     * Main
+     * 
+     * Usage: Batch directory [summary file]
+     * 
+     * The summary is written to standard out when no summary file is
+     * given. Exits with 1 when any document could not be summarised.
+     * 
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: Batch <directory> [summary file]");
+            System.exit(2);
+        }
+        
+        Batch batch = new Batch(
+                new File(args[0]),
+                Runtime.getRuntime().availableProcessors()
+        );
+        
+        try {
+            ObjectNode summary = batch.run();
+            ObjectWriter writer = DocumentMapper
+                    .mapper()
+                    .writerWithDefaultPrettyPrinter();
+            
+            if (args.length == 2) {
+                writer.writeValue(new File(args[1]), summary);
+            } else {
+                System.out.println(writer.writeValueAsString(summary));
+            }
+            
+            for (JsonNode d : summary.get("documents")) {
+                if (d.has("error")) {
+                    System.exit(1);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(
+                    "Unable to summarise documents: " + e.getMessage()
+            );
+            System.exit(1);
+        }
+        
+        System.exit(0);
+    }
+}
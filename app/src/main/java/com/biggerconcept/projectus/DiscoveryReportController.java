@@ -1,36 +1,36 @@
 package com.biggerconcept.projectus;
 
 import com.biggerconcept.sdk.exceptions.NoChoiceMadeException;
+import com.biggerconcept.sdk.reports.IReport;
 import com.biggerconcept.sdk.reports.Formats;
 import com.biggerconcept.sdk.reports.Formats.Format;
-import com.biggerconcept.sdk.serializers.documents.Doc;
-import com.biggerconcept.sdk.serializers.documents.Docx;
-import com.biggerconcept.sdk.serializers.documents.Markdown;
 import com.biggerconcept.sdk.ui.dialogs.ErrorAlert;
 import com.biggerconcept.sdk.ui.dialogs.MessageBox;
 import com.biggerconcept.sdk.ui.dialogs.OpenFileDialog;
 import com.biggerconcept.sdk.ui.dialogs.OpenFolderDialog;
 import com.biggerconcept.projectus.domain.Document;
 import com.biggerconcept.projectus.domain.Epic;
-import com.biggerconcept.projectus.serializers.DiscoveryDocumentSerializer;
+import com.biggerconcept.projectus.reports.Report;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.ResourceBundle;
+import javafx.collections.ListChangeListener;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
 
 /**
  * Discovery report controller
@@ -53,6 +53,23 @@ public class DiscoveryReportController implements Initializable {
      */
     private Epic currentEpic;
     
+    /**
+     * Reports being generated, if any.
+     */
+    private EpicReports batch;
+    
+    /**
+     * Report to generate
+     */
+    @FXML
+    public ComboBox reportComboBox;
+    
+    /**
+     * Epics to generate reports for
+     */
+    @FXML
+    public ListView epicsListView;
+    
     /**
      * Report name text field
      */
@@ -107,6 +124,18 @@ public class DiscoveryReportController implements Initializable {
     @FXML
     public Button saveButton;
     
+    /**
+     * Cancel button
+     */
+    @FXML
+    public Button cancelButton;
+    
+    /**
+     * Generation progress bar
+     */
+    @FXML
+    public ProgressBar progressBar;
+    
     /**
      * Initialize-er for the report window
      * 
@@ -122,25 +151,61 @@ public class DiscoveryReportController implements Initializable {
         reportFormatComboBox.getSelectionModel()
                 .select(Formats.defaultFormat);
         customTemplateCheckBox.setDisable(true);
+        progressBar.setVisible(false);
+        epicsListView.getSelectionModel()
+                .setSelectionMode(SelectionMode.MULTIPLE);
+        epicsListView.getSelectionModel()
+                .getSelectedIndices()
+                .addListener(
+                        (ListChangeListener) (c) -> handleEpicSelection()
+                );
     }
     
     /**
      * Setter for open document.
      * 
+     * The reports of the document are offered alongside the discovery
+     * document, and every epic of the document is offered for selection.
+     * 
      * @param doc pointer to document
      */
     public void setDocument(Document doc) {
         currentDocument = doc;
+        
+        reportComboBox.getItems().clear();
+        reportComboBox.getItems().add(
+                bundle.getString("reports.discovery.discoveryDocument")
+        );
+        
+        for (IReport r : doc.getPreferences().getReports()) {
+            reportComboBox.getItems().add(((Report) r).getName());
+        }
+        
+        reportComboBox.getSelectionModel().select(0);
+        
+        epicsListView.getItems().clear();
+        
+        for (Epic e : doc.getEpics()) {
+            epicsListView.getItems().add(defaultName(e));
+        }
     }
     
     /**
      * Setter for active epic
      * 
+     * The active epic is selected in the list of epics.
+     * 
      * @param epic open epic
      */
     public void setEpic(Epic epic) {
         currentEpic = epic;
         reportNameTextField.setText(defaultName());
+        
+        int index = currentDocument.getEpics().indexOf(epic);
+        
+        if (index >= 0) {
+            epicsListView.getSelectionModel().clearAndSelect(index);
+        }
     }
     
     /**
@@ -251,12 +316,31 @@ public class DiscoveryReportController implements Initializable {
         }
     }
     
+    /**
+     * Names a single report with the report name. When more than one epic
+     * is selected, each report is named after its epic, so the report name
+     * is disabled.
+     */
+    private void handleEpicSelection() {
+        reportNameTextField.setDisable(getEpics().size() > 1);
+    }
+    
     /**
      * Handles the cancel dialog action
+     * 
+     * While reports are being generated, this cancels the reports that
+     * have not been started. The dialog is closed once the reports that
+     * have been started are finished.
      */
     @FXML
     private void handleCancel() {
         try {
+            if (batch != null) {
+                batch.cancel();
+                cancelButton.setDisable(true);
+                return;
+            }
+            
             window().close();
         } catch (Exception e) {
             ErrorAlert.show(
@@ -274,15 +358,31 @@ public class DiscoveryReportController implements Initializable {
      * If there are not enough details to render the report
      * a warning dialog is shown and the function will return early.
      * 
-     * Otherwise the template is resolved, and the discovery document
-     * serializer is setup for discovery document serialization.
-     * 
-     * The document is saved and then the dialog is closed.
+     * Otherwise the chosen report is generated for each selected epic in
+     * the background, with progress shown in the dialog. The dialog is
+     * closed when every report has been generated, or the generation
+     * has been cancelled. Any report that could not be generated is
+     * reported.
      */
     @FXML
     private void handleSave() {
         try {
-            if (hasName() == false) {
+            ArrayList<Epic> epics = getEpics();
+            
+            if (epics.isEmpty()) {
+                MessageBox.show(
+                        AlertType.WARNING, 
+                        bundle.getString(
+                                "reports.discovery.errors.noGen.title"
+                        ),
+                        bundle.getString(
+                                "reports.discovery.errors.noGen.missingEpics"
+                        )
+                );
+                return;
+            }
+            
+            if (epics.size() == 1 && hasName() == false) {
                 MessageBox.show(
                         AlertType.WARNING, 
                         bundle.getString(
@@ -308,31 +408,92 @@ public class DiscoveryReportController implements Initializable {
                 return;
             }
             
-            XWPFDocument template = getTemplateDocument();
-            Doc doc;
-            File f = getSaveLocationFile();
+            EpicReports reports = new EpicReports(
+                    currentDocument,
+                    bundle,
+                    getReport(),
+                    getSaveLocationDirectory(),
+                    getFormat(),
+                    getTemplateFile(),
+                    Runtime.getRuntime().availableProcessors()
+            );
             
-            if (getFormat() == Format.DOCX) {
-                doc = new Docx(f, template);
-            } else {
-                doc = new Markdown(f);
+            if (epics.size() == 1) {
+                reports.setName(epics.get(0), getName());
             }
             
-            DiscoveryDocumentSerializer dds = new DiscoveryDocumentSerializer(
-                    bundle,
-                    currentDocument.getPreferences(),
-                    currentEpic,
-                    f,
-                    doc
-            );
+            Task<ArrayList<EpicReports.Result>> task = 
+                    new Task<ArrayList<EpicReports.Result>>() {
+                @Override
+                protected ArrayList<EpicReports.Result> call() 
+                        throws Exception {
+                    return reports.run(
+                            epics,
+                            (result, done, total) -> 
+                                    updateProgress(done, total)
+                    );
+                }
+            };
             
-            dds.save();
-            window().close();
+            task.setOnSucceeded((e) -> handleSaved(task.getValue()));
+            task.setOnFailed((e) -> handleSaveFailed(task.getException()));
+            
+            batch = reports;
+            
+            progressBar.progressProperty().bind(task.progressProperty());
+            progressBar.setVisible(true);
+            saveButton.setDisable(true);
+            
+            Thread worker = new Thread(task);
+            worker.setDaemon(true);
+            worker.start();
         } catch (Exception e) {
             ErrorAlert.show(bundle, bundle.getString("errors.saveFile"), e);
         }
     }
     
+    /**
+     * Handles reports having been generated.
+     * 
+     * The first report that could not be generated, if any, is shown
+     * before the dialog is closed.
+     * 
+     * @param results results of generation
+     */
+    private void handleSaved(ArrayList<EpicReports.Result> results) {
+        batch = null;
+        
+        for (EpicReports.Result r : results) {
+            if (!r.isRendered()) {
+                ErrorAlert.show(
+                        bundle,
+                        bundle.getString("errors.saveFile"),
+                        r.getError()
+                );
+                break;
+            }
+        }
+        
+        window().close();
+    }
+    
+    /**
+     * Handles reports being unable to be generated.
+     * 
+     * @param error cause of failure
+     */
+    private void handleSaveFailed(Throwable error) {
+        batch = null;
+        
+        Exception cause = error instanceof Exception
+                ? (Exception) error
+                : new Exception(error);
+        
+        ErrorAlert.show(bundle, bundle.getString("errors.saveFile"), cause);
+        
+        window().close();
+    }
+    
     /**
      * Builds a default name for a discovery document.
      * 
@@ -347,9 +508,20 @@ public class DiscoveryReportController implements Initializable {
             return bundle.getString("reports.discovery.title");
         }
         
-        return String.valueOf(currentEpic.getIdentifier()) 
+        return defaultName(currentEpic);
+    }
+    
+    /**
+     * Builds a default name for the report of an epic.
+     * 
+     * @param epic epic to name report of
+     * 
+     * @return epic document name
+     */
+    private static String defaultName(Epic epic) {
+        return String.valueOf(epic.getIdentifier()) 
                 + " " 
-                + currentEpic.getName();
+                + epic.getName();
     }
     
     /**
@@ -361,6 +533,42 @@ public class DiscoveryReportController implements Initializable {
         return reportNameTextField.getText().trim();
     }
     
+    /**
+     * Returns the selected report.
+     * 
+     * @return selected report, or null for the discovery document
+     */
+    private Report getReport() {
+        int index = reportComboBox.getSelectionModel().getSelectedIndex();
+        
+        if (index <= 0) {
+            return null;
+        }
+        
+        return (Report) currentDocument
+                .getPreferences()
+                .getReports()
+                .get(index - 1);
+    }
+    
+    /**
+     * Returns the selected epics, in document order.
+     * 
+     * @return selected epics
+     */
+    private ArrayList<Epic> getEpics() {
+        ArrayList<Epic> epics = new ArrayList<>();
+        ArrayList<Epic> all = currentDocument.getEpics();
+        
+        for (int i = 0; i < all.size(); i++) {
+            if (epicsListView.getSelectionModel().isSelected(i)) {
+                epics.add(all.get(i));
+            }
+        }
+        
+        return epics;
+    }
+    
     /**
      * Returns the selected document format.
      * 
@@ -390,26 +598,6 @@ public class DiscoveryReportController implements Initializable {
         return new File(getSaveLocation());
     }
     
-    /**
-     * Constructs and returns a file for the target report file
-     * 
-     * This is a union of the save location directory, the name
-     * of the document and the format.
-     * 
-     * @return target report file
-     */
-    private File getSaveLocationFile() {
-        String path = getSaveLocationDirectory().getAbsolutePath()
-                        + File.separatorChar 
-                        + getName() 
-                        + "."
-                        + getFormat().toString().toLowerCase();
-        
-        File f = new File(path);
-        
-        return f;
-    }
-    
     /**
      * Returns the template file path as a string.
      * 
@@ -420,25 +608,19 @@ public class DiscoveryReportController implements Initializable {
     }
     
     /**
-     * Resolves the template document.
-     * 
-     * If the path is not set, the application default template will be
-     * returned from the application bundle.
+     * Returns the template file.
      * 
-     * If a template is found, that is read into an XWPF document
-     * for use in the serializer.
+     * If the path is not set, the application default template is used
+     * for the report.
      * 
-     * @return template document
-     * @throws IOException when unable to read the template
+     * @return template file, or null for the default template
      */
-    private XWPFDocument getTemplateDocument() throws IOException {
+    private File getTemplateFile() {
         if ("".equals(getTemplate())) {
-            return currentDocument.getPreferences().defaultTemplate();
+            return null;
         }
         
-        InputStream template = new FileInputStream(getTemplate());
-        
-        return new XWPFDocument(template);
+        return new File(getTemplate());
     }
     
     /**
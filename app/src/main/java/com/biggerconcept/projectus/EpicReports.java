@@ -0,0 +1,579 @@
+package com.biggerconcept.projectus;
+
+import com.biggerconcept.sdk.reports.IReport;
+import com.biggerconcept.sdk.reports.Formats.Format;
+import com.biggerconcept.sdk.reports.elements.IElement;
+import com.biggerconcept.sdk.serializers.documents.Doc;
+import com.biggerconcept.sdk.serializers.documents.Docx;
+import com.biggerconcept.sdk.serializers.documents.Markdown;
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.domain.Epic;
+import com.biggerconcept.projectus.persistence.AtomicDocumentWriter;
+import com.biggerconcept.projectus.persistence.DocumentMapper;
+import com.biggerconcept.projectus.reports.Element;
+import com.biggerconcept.projectus.reports.Report;
+import com.biggerconcept.projectus.serializers.DiscoveryDocumentSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.xmlbeans.XmlException;
+
+/**
+ * Renders a report for each of a set of epics.
+ * 
+ * Either the discovery document, or one of the reports of the document,
+ * is rendered once for every epic, into a file of its own. The document
+ * is snapshot when the batch is created. Each epic is rendered from its
+ * own copy of the snapshot, with its own application state, so epics are
+ * rendered in parallel without touching the open document, which can
+ * continue to be edited.
+ * 
+ * A batch can be cancelled while it runs. Epics that have started are
+ * finished, so no report is left half written, and the rest are skipped.
+ * 
+ * @author Andrew Bigger
+ */
+public class EpicReports {
+    /**
+     * Receives the progress of a batch.
+     */
+    public interface Listener {
+        /**
+         * Called when an epic has been rendered, or failed to render.
+         * 
+         * This is called on the thread that rendered the epic.
+         * 
+         * @param result result for the epic
+         * @param done number of epics finished
+         * @param total number of epics in the batch
+         */
+        public void rendered(Result result, int done, int total);
+    }
+    
+    /**
+     * Result of rendering the report of an epic.
+     */
+    public static class Result {
+        /**
+         * Epic the report is for.
+         */
+        private final Epic epic;
+        
+        /**
+         * Report file.
+         */
+        private final File file;
+        
+        /**
+         * Error when the report could not be rendered.
+         */
+        private final Exception error;
+        
+        /**
+         * Constructor for result.
+         * 
+         * @param epic epic the report is for
+         * @param file report file
+         * @param error error, or null when the report was rendered
+         */
+        Result(Epic epic, File file, Exception error) {
+            this.epic = epic;
+            this.file = file;
+            this.error = error;
+        }
+        
+        /**
+         * Getter for epic.
+         * 
+         * @return epic the report is for
+         */
+        public Epic getEpic() {
+            return epic;
+        }
+        
+        /**
+         * Getter for file.
+         * 
+         * @return report file
+         */
+        public File getFile() {
+            return file;
+        }
+        
+        /**
+         * Getter for error.
+         * 
+         * @return error, or null when the report was rendered
+         */
+        public Exception getError() {
+            return error;
+        }
+        
+        /**
+         * Returns true if the report was rendered.
+         * 
+         * @return result
+         */
+        public boolean isRendered() {
+            return error == null;
+        }
+    }
+    
+    /**
+     * Application resource bundle.
+     */
+    private final ResourceBundle bundle;
+    
+    /**
+     * Snapshot of the document.
+     */
+    private final TokenBuffer snapshot;
+    
+    /**
+     * Position of the report in the document reports, or -1 to render
+     * the discovery document.
+     */
+    private final int report;
+    
+    /**
+     * Directory to write reports to.
+     */
+    private final File directory;
+    
+    /**
+     * Format of reports.
+     */
+    private final Format format;
+    
+    /**
+     * Template file, or null for the default template.
+     */
+    private final File template;
+    
+    /**
+     * Number of threads to render epics on.
+     */
+    private final int threads;
+    
+    /**
+     * File names of reports, by epic.
+     */
+    private final HashMap<UUID, String> names;
+    
+    /**
+     * Whether the batch has been cancelled.
+     */
+    private volatile boolean cancelled;
+    
+    /**
+     * Constructor for epic reports.
+     * 
+     * @param doc document to render reports from
+     * @param bundle application resource bundle
+     * @param report report to render, or null for the discovery document
+     * @param directory directory to write reports to
+     * @param format format of reports
+     * @param template template file, or null for the default template
+     * @param threads number of threads to render epics on
+     * 
+     * @throws IOException when unable to snapshot the document
+     */
+    public EpicReports(
+            Document doc,
+            ResourceBundle bundle,
+            Report report,
+            File directory,
+            Format format,
+            File template,
+            int threads
+    ) throws IOException {
+        this.bundle = bundle;
+        this.snapshot = AtomicDocumentWriter.snapshot(doc);
+        this.directory = directory;
+        this.format = format;
+        this.template = template;
+        this.threads = threads;
+        this.names = new HashMap<>();
+        
+        if (report == null) {
+            this.report = -1;
+        } else {
+            this.report = doc.getPreferences().getReports().indexOf(report);
+            
+            if (this.report < 0) {
+                throw new IllegalArgumentException(
+                        "Report is not in the document"
+                );
+            }
+        }
+    }
+    
+    /**
+     * Sets the file name of the report of an epic.
+     * 
+     * By default the report is named after the identifier and name of
+     * the epic.
+     * 
+     * @param epic epic to name report of
+     * @param name file name, without extension
+     */
+    public void setName(Epic epic, String name) {
+        names.put(epic.getId(), name);
+    }
+    
+    /**
+     * Returns the files the reports of epics are written to.
+     * 
+     * Epics whose names would give the same file, such as epics with the
+     * same identifier and name, are numbered after the first, so no two
+     * reports of a batch are written to the same file.
+     * 
+     * @param epics epics to return report files of
+     * 
+     * @return report files, by epic position
+     */
+    private ArrayList<File> filesFor(List<Epic> epics) {
+        ArrayList<File> files = new ArrayList<>();
+        HashSet<String> taken = new HashSet<>();
+        
+        for (Epic e : epics) {
+            File file = fileFor(e, 1);
+            
+            for (int copy = 2; !taken.add(key(file)); copy++) {
+                file = fileFor(e, copy);
+            }
+            
+            files.add(file);
+        }
+        
+        return files;
+    }
+    
+    /**
+     * Returns a file for the report of an epic.
+     * 
+     * @param epic epic to return report file of
+     * @param copy number of the file, from 1 for the first
+     * 
+     * @return report file
+     */
+    private File fileFor(Epic epic, int copy) {
+        String name = names.get(epic.getId());
+        
+        if (name == null) {
+            name = epic.getIdentifier() + " " + epic.getName();
+        }
+        
+        if (copy > 1) {
+            name = name + " (" + copy + ")";
+        }
+        
+        return new File(
+                directory,
+                name.replaceAll("[\\\\/:*?\"<>|]", "_")
+                + "."
+                + format.toString().toLowerCase()
+        );
+    }
+    
+    /**
+     * Returns the key a report file is compared by.
+     * 
+     * Some file systems ignore case, so files that differ only in case
+     * are the same file.
+     * 
+     * @param file report file
+     * 
+     * @return key of file
+     */
+    private static String key(File file) {
+        return file.getName().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Cancels the batch.
+     * 
+     * Epics that are being rendered are finished, and the rest are
+     * skipped.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    /**
+     * Returns true if the batch has been cancelled.
+     * 
+     * @return result
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    /**
+     * Renders the reports of the given epics.
+     * 
+     * Epics that can not be rendered are returned with the error, so one
+     * broken epic does not stop the batch.
+     * 
+     * @param epics epics to render reports of
+     * @param listener listener for progress, or null for none
+     * 
+     * @return results, in the order of the epics, without skipped epics
+     * 
+     * @throws IOException when interrupted while rendering
+     */
+    public ArrayList<Result> run(List<Epic> epics, Listener listener)
+            throws IOException {
+        ArrayList<Result> results = new ArrayList<>();
+        
+        if (epics.isEmpty()) {
+            return results;
+        }
+        
+        int total = epics.size();
+        AtomicInteger done = new AtomicInteger();
+        ArrayList<File> files = filesFor(epics);
+        
+        ExecutorService pool = Executors.newFixedThreadPool(
+                Math.min(threads, total)
+        );
+        
+        try {
+            List<Future<Result>> rendered = new ArrayList<>();
+            
+            for (int i = 0; i < total; i++) {
+                Epic e = epics.get(i);
+                File file = files.get(i);
+                
+                rendered.add(pool.submit(() -> {
+                    if (cancelled) {
+                        return null;
+                    }
+                    
+                    Result result = render(e, file);
+                    
+                    if (listener != null) {
+                        listener.rendered(
+                                result,
+                                done.incrementAndGet(),
+                                total
+                        );
+                    }
+                    
+                    return result;
+                }));
+            }
+            
+            for (Future<Result> r : rendered) {
+                Result result = r.get();
+                
+                if (result != null) {
+                    results.add(result);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering reports", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to render reports", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        
+        return results;
+    }
+    
+    /**
+     * Renders the report of an epic.
+     * 
+     * @param epic epic to render report of
+     * @param file file to write report to
+     * 
+     * @return result for the epic
+     */
+    private Result render(Epic epic, File file) {
+        try {
+            Document copy = DocumentMapper
+                    .reader()
+                    .readValue(snapshot.asParser());
+            
+            Epic target = copy.findEpic(epic.getId());
+            
+            if (target == null) {
+                throw new IOException(
+                        "Epic " + epic.getName() + " is not in the document"
+                );
+            }
+            
+            Doc doc = document(copy, file);
+            
+            if (report < 0) {
+                DiscoveryDocumentSerializer dds =
+                        new DiscoveryDocumentSerializer(
+                                bundle,
+                                copy.getPreferences(),
+                                target,
+                                file,
+                                doc
+                        );
+                
+                dds.save();
+            } else {
+                insertReport(copy, target, doc);
+                doc.save();
+            }
+            
+            return new Result(epic, file, null);
+        } catch (Exception e) {
+            return new Result(epic, file, e);
+        }
+    }
+    
+    /**
+     * Inserts the report into a report document.
+     * 
+     * The elements of the copy of the report are given application state
+     * with the copy of the document and the epic open, so every selected
+     * epic element reports on the epic.
+     * 
+     * @param copy copy of document
+     * @param epic epic in the copy to report on
+     * @param doc report document
+     * 
+     * @throws IOException when unable to insert an element
+     */
+    private void insertReport(Document copy, Epic epic, Doc doc)
+            throws IOException {
+        State state = new State(null, bundle);
+        state.setOpenDocument(copy);
+        state.setOpenEpic(epic);
+        state.setReportDocument();
+        
+        IReport r = copy.getPreferences().getReports().get(report);
+        HashMap<String, String> vars = state
+                .getRenderContext()
+                .getVariables();
+        
+        for (IElement e : ((Report) r).getElements()) {
+            ((Element) e).insertInto(doc, vars, null);
+        }
+    }
+    
+    /**
+     * Creates the report document for an epic.
+     * 
+     * Each report is given its own copy of the template.
+     * 
+     * @param copy copy of document
+     * @param file report file
+     * 
+     * @return report document
+     * 
+     * @throws IOException when unable to read the template
+     * @throws XmlException when unable to parse the template
+     */
+    private Doc document(Document copy, File file)
+            throws IOException, XmlException {
+        if (format != Format.DOCX) {
+            return new Markdown(file);
+        }
+        
+        if (template == null) {
+            return new Docx(file, copy.getPreferences().defaultTemplate());
+        }
+        
+        try (InputStream in = new FileInputStream(template)) {
+            return new Docx(file, new XWPFDocument(in));
+        }
+    }
+    
+    /**
+     * Main
+     * 
+     * Usage: EpicReports document directory [report name]
+     * 
+     * Renders the discovery document, or the named report of the
+     * document, for every epic of the document as DOCX. Exits with 1 when
+     * the report of any epic could not be rendered.
+     * 
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println(
+                    "Usage: EpicReports <document> <directory> [report name]"
+            );
+            System.exit(2);
+        }
+        
+        try {
+            Document doc = Document.read(new File(args[0]));
+            Report report = null;
+            
+            if (args.length == 3) {
+                for (IReport r : doc.getPreferences().getReports()) {
+                    if (args[2].equals(((Report) r).getName())) {
+                        report = (Report) r;
+                    }
+                }
+                
+                if (report == null) {
+                    System.err.println("No report named " + args[2]);
+                    System.exit(2);
+                }
+            }
+            
+            EpicReports batch = new EpicReports(
+                    doc,
+                    ResourceBundle.getBundle("strings", App.EN_US),
+                    report,
+                    new File(args[1]),
+                    Format.DOCX,
+                    null,
+                    Runtime.getRuntime().availableProcessors()
+            );
+            
+            ArrayList<Result> results = batch.run(
+                    doc.getEpics(),
+                    (result, done, total) -> {
+                        String outcome = result.isRendered()
+                                ? result.getFile().getName()
+                                : "failed: " + result.getError().getMessage();
+                        
+                        System.out.println(
+                                "[" + done + "/" + total + "] "
+                                + result.getEpic().getName()
+                                + " - "
+                                + outcome
+                        );
+                    }
+            );
+            
+            for (Result r : results) {
+                if (!r.isRendered()) {
+                    System.exit(1);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to render reports: " + e.getMessage());
+            System.exit(1);
+        }
+        
+        System.exit(0);
+    }
+}
@@ -1,12 +1,20 @@
 package com.biggerconcept.projectus;
 
+import com.biggerconcept.projectus.domain.Actor;
 import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.domain.DocumentChanges;
 import com.biggerconcept.projectus.domain.Epic;
 import com.biggerconcept.projectus.domain.Risk;
 import com.biggerconcept.projectus.domain.Scope;
 import com.biggerconcept.projectus.domain.Story;
 import com.biggerconcept.projectus.domain.Task;
 import com.biggerconcept.projectus.exceptions.DuplicateItemException;
+import com.biggerconcept.projectus.persistence.DocumentCache;
+import com.biggerconcept.projectus.persistence.DocumentJournal;
+import com.biggerconcept.projectus.persistence.DocumentMapper;
+import com.biggerconcept.projectus.persistence.DocumentSaveQueue;
+import com.biggerconcept.projectus.persistence.DocumentStreamLoader;
+import com.biggerconcept.projectus.persistence.DocumentWatcher;
 import com.biggerconcept.sdk.exceptions.NoChoiceMadeException;
 import com.biggerconcept.sdk.platform.OperatingSystem;
 import com.biggerconcept.sdk.reports.IReport;
@@ -24,11 +32,12 @@ import com.biggerconcept.projectus.ui.tables.RiskTable;
 import com.biggerconcept.projectus.ui.tables.StoryTable;
 import com.biggerconcept.projectus.ui.tables.TasksTable;
 import com.biggerconcept.sdk.ui.windows.StandardWindow;
-import com.biggerconcept.projectus.domain.Status;
+import com.biggerconcept.projectus.domain.StatusSnapshot;
 import com.biggerconcept.projectus.helpers.Compare;
 import com.biggerconcept.projectus.ui.dialogs.EpicChooserDialog;
 import com.biggerconcept.projectus.ui.dialogs.EpicDialog;
 import com.biggerconcept.projectus.ui.dialogs.ScopeDialog;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.IOException;
 import javafx.scene.control.Button;
@@ -37,8 +46,13 @@ import javafx.scene.control.MenuItem;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -52,6 +66,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.control.MenuButton;
 import javafx.scene.control.ProgressBar;
+import javafx.scene.control.SplitPane;
 import javafx.scene.control.TabPane;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextArea;
@@ -84,6 +99,37 @@ public class MainController implements Initializable {
      */
     private ArrayList<Stage> openWindows;
     
+    /**
+     * Queue for saving documents in the background.
+     */
+    private DocumentSaveQueue saveQueue;
+    
+    /**
+     * Cache of documents opened alongside the open document.
+     */
+    private DocumentCache documentCache;
+    
+    /**
+     * Watcher for changes made to the open document outside the
+     * application.
+     */
+    private volatile DocumentWatcher documentWatcher;
+    
+    /**
+     * Whether the change journal is enabled in the application settings.
+     */
+    private volatile boolean journalEnabled;
+    
+    /**
+     * Document shown in the epics table.
+     */
+    private Document mappedEpicsDocument;
+    
+    /**
+     * Revision of the document when the epics table was last built.
+     */
+    private long mappedEpicsRevision;
+    
     /**
      * Application menu.
      */
@@ -121,6 +167,36 @@ public class MainController implements Initializable {
     @FXML
     public Button newFileButton;
     
+    /**
+     * New document menu item.
+     */
+    @FXML
+    public MenuItem newMenuItem;
+    
+    /**
+     * Open document menu item.
+     */
+    @FXML
+    public MenuItem openMenuItem;
+    
+    /**
+     * Save document menu item.
+     */
+    @FXML
+    public MenuItem saveMenuItem;
+    
+    /**
+     * Document preferences menu item.
+     */
+    @FXML
+    public MenuItem preferencesMenuItem;
+    
+    /**
+     * Split pane holding the project, epics and selected epic panels.
+     */
+    @FXML
+    public SplitPane documentSplitPane;
+    
     /**
      * Project title text box.
      * 
@@ -410,6 +486,12 @@ public class MainController implements Initializable {
     @FXML
     public ProgressBar commitmentProgress;
     
+    /**
+     * Progress bar for document loading.
+     */
+    @FXML
+    public ProgressBar documentLoadProgressBar;
+    
     /**
      * Label for commitment points
      */
@@ -612,6 +694,7 @@ public class MainController implements Initializable {
         statusPanel.setVisible(false);
         weekSummary.setVisible(false);
         commitmentPanel.setVisible(false);
+        documentLoadProgressBar.setVisible(false);
         
         if (OperatingSystem.isMac()) {
             mainMenu.useSystemMenuBarProperty().set(true);
@@ -620,6 +703,47 @@ public class MainController implements Initializable {
         
         openWindows = new ArrayList<Stage>();
         
+        documentCache = new DocumentCache(4);
+        
+        journalEnabled = App.config().isTrue("journal");
+        
+        App.addConfigListener(key -> {
+            if ("journal".equals(key)) {
+                journalEnabled = App.config().isTrue("journal");
+            }
+        });
+        
+        saveQueue = new DocumentSaveQueue(new DocumentSaveQueue.Listener() {
+            @Override
+            public void saved(File file, Document doc) {
+                documentCache.written(file, doc);
+                
+                DocumentWatcher watcher = documentWatcher;
+                
+                if (watcher != null) {
+                    watcher.written(file);
+                }
+            }
+            
+            @Override
+            public void failed(
+                    File file,
+                    Document doc,
+                    DocumentChanges unsaved,
+                    IOException e
+            ) {
+                Platform.runLater(() -> {
+                    doc.getChanges().include(unsaved);
+                    
+                    ErrorAlert.show(
+                            state.bundle(),
+                            state.bundle().getString("errors.saveFile"),
+                            e
+                    );
+                });
+            }
+        });
+        
         applyTooltips();
     }
     
@@ -792,7 +916,7 @@ public class MainController implements Initializable {
     }
     
     private void mapStatusToWindow() {
-        Status status = state.getOpenDocument().status();
+        StatusSnapshot status = state.getOpenDocument().statusSnapshot();
         
         if (status.hasDates() && status.hasStarted() == true) {
             statusPanel.setVisible(true);
@@ -883,20 +1007,31 @@ public class MainController implements Initializable {
     }
     
     private void mapEpicsToWindow() {
-        if (state.getOpenDocument().getEpics() == null) {
+        Document doc = state.getOpenDocument();
+        
+        if (doc.getEpics() == null) {
             epicsTableView.getItems().clear();
+            mappedEpicsDocument = null;
             
             return;
         }
         
+        if (doc == mappedEpicsDocument
+                && doc.getRevision() == mappedEpicsRevision) {
+            return;
+        }
+        
         EpicsTable epicsTable = new EpicsTable(
                 state,
                 state.bundle(),
-                state.getOpenDocument().getPreferences(),
-                state.getOpenDocument().getEpics()
+                doc.getPreferences(),
+                doc.getEpics()
         );
         
         epicsTable.bind(epicsTableView);
+        
+        mappedEpicsDocument = doc;
+        mappedEpicsRevision = doc.getRevision();
     }
     
     public void mapSelectedEpicToWindow() {
@@ -1206,6 +1341,8 @@ public class MainController implements Initializable {
             
             state.reset();
             state.mapDocumentToWindow();
+            
+            watchOpenDocument();
         } catch (Exception e) {
             ErrorAlert.show(state.bundle(), state.bundle().getString("errors.new"), e);
         }
@@ -1243,15 +1380,229 @@ public class MainController implements Initializable {
     /**
      * Opens document
      * 
+     * The document is streamed from disk on a background thread. Epics are
+     * shown in the epics table as they are read, and the rest of the
+     * window is mapped once the whole document has been loaded.
+     * 
+     * Errors while loading are shown in an error alert.
+     * 
      * @param documentFile file to open
      * @throws IOException when unable to open document
      */
     public void openDocument(File documentFile) throws IOException {
+        if (!documentFile.canRead()) {
+            throw new IOException("Unable to read " + documentFile.getPath());
+        }
+        
         closeAllDependentWindows();
-
-        state.setOpenDocument(Document.load(documentFile));
-        state.setOpenEpic(null);
-        state.mapDocumentToWindow();
+        
+        ConcurrentLinkedQueue<Epic> loaded = new ConcurrentLinkedQueue<>();
+        AtomicBoolean drainScheduled = new AtomicBoolean(false);
+        AtomicLong loadProgress = new AtomicLong(0);
+        
+        DocumentStreamLoader loader = new DocumentStreamLoader(
+                documentFile,
+                (epic, progress) -> {
+                    loaded.add(epic);
+                    loadProgress.set(Double.doubleToLongBits(progress));
+                    
+                    if (drainScheduled.compareAndSet(false, true)) {
+                        Platform.runLater(() -> {
+                            drainScheduled.set(false);
+                            drainLoadedEpics(loaded, loadProgress);
+                        });
+                    }
+                }
+        );
+        
+        epicsTableView.getItems().clear();
+        mappedEpicsDocument = null;
+        setDocumentLoading(true);
+        
+        Thread loadThread = new Thread(() -> {
+            try {
+                Document doc = loader.load();
+                
+                Platform.runLater(() -> {
+                    setDocumentLoading(false);
+                    
+                    state.setOpenDocument(doc);
+                    state.setOpenEpic(null);
+                    state.mapDocumentToWindow();
+                    
+                    watchOpenDocument();
+                });
+            } catch (IOException e) {
+                Platform.runLater(() -> {
+                    setDocumentLoading(false);
+                    mapEpicsToWindow();
+                    
+                    ErrorAlert.show(
+                            state.bundle(),
+                            state.bundle().getString("errors.open"),
+                            e
+                    );
+                });
+            }
+        }, "document-loader");
+        
+        loadThread.setDaemon(true);
+        loadThread.start();
+    }
+    
+    /**
+     * Moves epics read by the document loader into the epics table.
+     * 
+     * This is called on the application thread, and takes every epic that
+     * has arrived since it was last called, so that a burst of small epics
+     * results in a single table update.
+     * 
+     * @param loaded epics read by the loader
+     * @param loadProgress bits of the latest load progress
+     */
+    private void drainLoadedEpics(
+            ConcurrentLinkedQueue<Epic> loaded,
+            AtomicLong loadProgress
+    ) {
+        ArrayList<Epic> batch = new ArrayList<>();
+        Epic epic;
+        
+        while ((epic = loaded.poll()) != null) {
+            batch.add(epic);
+        }
+        
+        if (documentLoadProgressBar.isVisible()) {
+            epicsTableView.getItems().addAll(batch);
+            documentLoadProgressBar.setProgress(
+                    Double.longBitsToDouble(loadProgress.get())
+            );
+        }
+    }
+    
+    /**
+     * Watches the open document for changes made outside the application.
+     * 
+     * Any previous watcher is stopped. Changes are merged into the open
+     * document as they are found. Watching is best effort, so a document
+     * that can not be watched is still opened.
+     */
+    private void watchOpenDocument() {
+        if (documentWatcher != null) {
+            try {
+                documentWatcher.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            
+            documentWatcher = null;
+        }
+        
+        File file = state.getOpenDocument().getFile();
+        
+        if (file == null) {
+            return;
+        }
+        
+        try {
+            documentWatcher = new DocumentWatcher(
+                    file,
+                    (doc) -> Platform.runLater(() -> mergeOutsideChanges(doc))
+            );
+        } catch (IOException e) {
+            // do nothing
+        }
+    }
+    
+    /**
+     * Merges changes made to the open document outside the application.
+     * 
+     * Only the parts of the window showing merged items are refreshed.
+     * 
+     * @param changed document loaded from the changed file
+     */
+    private void mergeOutsideChanges(Document changed) {
+        Document doc = state.getOpenDocument();
+        
+        if (doc.getFile() == null || !doc
+                .getFile()
+                .getAbsoluteFile()
+                .equals(changed.getFile().getAbsoluteFile())) {
+            return;
+        }
+        
+        DocumentChanges merged = doc.merge(changed);
+        
+        if (merged.isEmpty()) {
+            return;
+        }
+        
+        boolean epicsChanged = merged.isEpicOrderChanged();
+        boolean linksChanged = false;
+        
+        for (Object item : merged.getChanged()) {
+            epicsChanged |= item instanceof Epic;
+            linksChanged |= !(item instanceof Epic);
+        }
+        
+        for (Object item : merged.getRemoved()) {
+            epicsChanged |= item instanceof Epic;
+            linksChanged |= !(item instanceof Epic);
+        }
+        
+        if (merged.isHeaderChanged()) {
+            setWindowTitle();
+            mapProjectDetailsToWindow();
+            state.setReportDocument();
+            mapReportsToWindow();
+        }
+        
+        if (epicsChanged) {
+            mapEpicsToWindow();
+        }
+        
+        Epic openEpic = state.getOpenEpic();
+        
+        if (openEpic != null) {
+            Epic current = doc.findEpic(openEpic.getId());
+            
+            if (current != openEpic || linksChanged) {
+                state.setOpenEpic(current);
+                mapSelectedEpicToWindow();
+            }
+        }
+        
+        if (epicsChanged || merged.isHeaderChanged()) {
+            mapStatusToWindow();
+        }
+    }
+    
+    /**
+     * Sets whether a document is being loaded.
+     * 
+     * While loading, the load progress is shown and every control that
+     * acts on a document is disabled. Until the load completes, the open
+     * document is still the one being replaced, so any edit made to it
+     * would be lost.
+     * 
+     * @param loading true when a document is being loaded
+     */
+    private void setDocumentLoading(boolean loading) {
+        documentLoadProgressBar.setProgress(0);
+        documentLoadProgressBar.setVisible(loading);
+        
+        newFileButton.setDisable(loading);
+        openFileButton.setDisable(loading);
+        saveFileButton.setDisable(loading);
+        reportsMenuButton.setDisable(loading);
+        manageStoriesButton.setDisable(loading);
+        manageRisksButton.setDisable(loading);
+        
+        newMenuItem.setDisable(loading);
+        openMenuItem.setDisable(loading);
+        saveMenuItem.setDisable(loading);
+        preferencesMenuItem.setDisable(loading);
+        
+        documentSplitPane.setDisable(loading);
     }
     
     /**
@@ -1260,7 +1611,15 @@ public class MainController implements Initializable {
      * When the file is not set, a save file dialog is shown. If a location is
      * not picked, then nothing will happen.
      * 
-     * The document will then be saved to disk.
+     * A snapshot of the document is then written to disk in the
+     * background, so that large documents do not hold up the window.
+     * 
+     * When the change journal is enabled and the file has already been
+     * written, only the changes are appended to the journal. The journal
+     * is compacted into the document file once it grows large.
+     * 
+     * Nothing is written when the document has not changed since it was
+     * last saved.
      */
     @FXML
     private void handleSaveDocument() {
@@ -1280,8 +1639,34 @@ public class MainController implements Initializable {
                 state.getOpenDocument().setFile(f);
             }
             
-            state.getOpenDocument().rebuildIdentifiers();
-            state.getOpenDocument().save();
+            Document doc = state.getOpenDocument();
+            doc.rebuildIdentifiers();
+            
+            if (documentWatcher == null
+                    || !documentWatcher.getFile().equals(
+                            doc.getFile().getAbsoluteFile()
+                    )) {
+                watchOpenDocument();
+            }
+            
+            if (doc.getChanges().isEmpty() && doc.getFile().exists()) {
+                return;
+            }
+            
+            if (canJournal(doc)) {
+                DocumentJournal.append(doc);
+                
+                if (documentWatcher != null) {
+                    documentWatcher.written(doc.getFile());
+                }
+                
+                if (DocumentJournal.needsCompaction(doc.getFile())) {
+                    saveQueue.save(doc);
+                }
+            } else {
+                saveQueue.save(doc);
+            }
+            
             state.mapDocumentToWindow();
         } catch (NoChoiceMadeException ncm) {
             // do nothing
@@ -1290,6 +1675,22 @@ public class MainController implements Initializable {
         }
     }
     
+    /**
+     * Returns true if the changes to a document can be journaled.
+     * 
+     * The journal must be enabled, and the document file must already hold
+     * everything but the recorded changes.
+     * 
+     * @param doc document to check
+     * 
+     * @return result
+     */
+    private boolean canJournal(Document doc) {
+        return journalEnabled
+                && doc.getFile().exists()
+                && !doc.getChanges().isEverythingChanged();
+    }
+    
     /**
      * Adds epic to project.
      */
@@ -1369,11 +1770,7 @@ public class MainController implements Initializable {
                 throw new NoChoiceMadeException();
             }
             
-            Collections.swap(
-                    state.getOpenDocument().getEpics(),
-                    selectedIndex,
-                    targetIndex
-            );
+            state.getOpenDocument().swapEpics(selectedIndex, targetIndex);
             
             state.mapDocumentToWindow();
         } catch (NoChoiceMadeException ncm) {
@@ -1407,11 +1804,7 @@ public class MainController implements Initializable {
                 throw new NoChoiceMadeException();
             }
             
-            Collections.swap(
-                    state.getOpenDocument().getEpics(),
-                    selectedIndex,
-                    targetIndex
-            );
+            state.getOpenDocument().swapEpics(selectedIndex, targetIndex);
             
             state.mapDocumentToWindow();
         } catch (NoChoiceMadeException ncm) {
@@ -1451,38 +1844,182 @@ public class MainController implements Initializable {
                 throw new NoChoiceMadeException();
             }
 
-            Document chosenDocument = Document.load(documentFile);
+            moveEpics(items, documentCache.get(documentFile));
             
-            for (Epic e : items) {                
+            state.mapDocumentToWindow();
+        } catch (NoChoiceMadeException ncm) {
+            // do nothing
+        } catch (Exception e) {
+            ErrorAlert.show(state.bundle(), state.bundle().getString("errors.moveEpic"), e);
+        }
+    }
+    
+    /**
+     * Moves epics from the open document to another document, and saves
+     * both documents together.
+     * 
+     * The stories, risks and actors of the epics are copied into the
+     * other document, so each document records changes to its own items.
+     * 
+     * Neither file changes when the move can not be saved, so the move is
+     * undone to keep both documents as they are on disk.
+     * 
+     * @param items epics to move
+     * @param chosenDocument document to move epics to
+     * 
+     * @throws IOException when unable to save the documents
+     */
+    private void moveEpics(List<Epic> items, Document chosenDocument)
+            throws IOException {
+        Document source = state.getOpenDocument();
+        List<UUID> order = new ArrayList<>();
+        List<Epic> moved = new ArrayList<>(items);
+        List<Actor> actors = new ArrayList<>();
+        List<Story> stories = new ArrayList<>();
+        List<Risk> risks = new ArrayList<>();
+        
+        for (Epic e : source.getEpics()) {
+            order.add(e.getId());
+        }
+        
+        try {
+            for (Epic e : moved) {                
                 for (Story s : e.getDocumentStories()) {
-                    if (chosenDocument.findActor(s.getActor().getId()) == null) {
-                        chosenDocument.addActor(s.getActor());
+                    Actor actor = chosenDocument.findActor(
+                            s.getActor().getId()
+                    );
+                    
+                    if (actor == null) {
+                        actor = copyOf(s.getActor());
+                        chosenDocument.addActor(actor);
+                        actors.add(actor);
                     }
 
                     if (chosenDocument.hasStory(s) == false) {
-                        chosenDocument.addStory(s);
+                        Story story = copyOf(s);
+                        story.setActor(actor);
+                        chosenDocument.addStory(story);
+                        stories.add(story);
                     }
                 }
-                
+            
                 for (Risk r : e.getDocumentRisks()) {
                     if (chosenDocument.hasRisk(r) == false) {
-                        chosenDocument.addRisk(r);
+                        Risk risk = copyOf(r);
+                        chosenDocument.addRisk(risk);
+                        risks.add(risk);
                     }
                 }
-                
-                state.getOpenDocument().removeEpic(e);
+            
+                source.removeEpic(e);
                 chosenDocument.addEpic(e);
             }
             
-            state.getOpenDocument().save();
-            chosenDocument.save();
+            saveQueue.saveTogether(
+                    () -> Platform.runLater(() -> {
+                        undoMove(
+                                source,
+                                chosenDocument,
+                                order,
+                                moved,
+                                actors,
+                                stories,
+                                risks
+                        );
+                        
+                        if (state.getOpenDocument() == source) {
+                            state.mapDocumentToWindow();
+                        }
+                    }),
+                    source,
+                    chosenDocument
+            );
+        } catch (IOException | RuntimeException e) {
+            undoMove(
+                    source,
+                    chosenDocument,
+                    order,
+                    moved,
+                    actors,
+                    stories,
+                    risks
+            );
+            throw e;
+        }
+    }
+    
+    /**
+     * Moves epics back to the document they were moved from.
+     * 
+     * Items that have been changed in either document since the move are
+     * left where they are.
+     * 
+     * @param source document epics were moved from
+     * @param target document epics were moved to
+     * @param order epic ids of the source document before the move
+     * @param epics moved epics
+     * @param actors actors copied to the target document
+     * @param stories stories copied to the target document
+     * @param risks risks copied to the target document
+     */
+    private void undoMove(
+            Document source,
+            Document target,
+            List<UUID> order,
+            List<Epic> epics,
+            List<Actor> actors,
+            List<Story> stories,
+            List<Risk> risks
+    ) {
+        for (Epic e : epics) {
+            if (target.findEpic(e.getId()) == e) {
+                target.removeEpic(e);
+            }
             
-            state.mapDocumentToWindow();
-        } catch (NoChoiceMadeException ncm) {
-            // do nothing
-        } catch (Exception e) {
-            ErrorAlert.show(state.bundle(), state.bundle().getString("errors.moveEpic"), e);
+            if (source.findEpic(e.getId()) == null) {
+                source.addEpic(e);
+            }
+        }
+        
+        for (Story s : stories) {
+            if (target.findStory(s.getId()) == s) {
+                target.removeStory(s);
+            }
+        }
+        
+        for (Risk r : risks) {
+            if (target.findRisk(r.getId()) == r) {
+                target.removeRisk(r);
+            }
         }
+        
+        for (Actor a : actors) {
+            if (target.findActor(a.getId()) == a) {
+                target.removeActor(a);
+            }
+        }
+        
+        source.orderEpics(order);
+    }
+    
+    /**
+     * Copies a document item through its serialized form.
+     * 
+     * @param <T> type of item
+     * @param item item to copy
+     * 
+     * @return copy of item, without a parent document
+     * 
+     * @throws IOException when unable to copy the item
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T copyOf(T item) throws IOException {
+        ObjectMapper mapper = DocumentMapper.mapper();
+        
+        return (T) mapper.treeToValue(
+                mapper.valueToTree(item),
+                item.getClass()
+        );
     }
     
     /**
@@ -1679,11 +2216,7 @@ public class MainController implements Initializable {
                 throw new NoChoiceMadeException();
             }
             
-            Collections.swap(
-                    state.getOpenEpic().getTasks(),
-                    selectedIndex,
-                    targetIndex
-            );
+            state.getOpenEpic().swapTasks(selectedIndex, targetIndex);
             
             state.mapDocumentToWindow();
         } catch (NoChoiceMadeException ncm) {
@@ -1721,11 +2254,7 @@ public class MainController implements Initializable {
                 throw new NoChoiceMadeException();
             }
             
-            Collections.swap(
-                    state.getOpenEpic().getTasks(),
-                    selectedIndex,
-                    targetIndex
-            );
+            state.getOpenEpic().swapTasks(selectedIndex, targetIndex);
             
             state.mapDocumentToWindow();
         } catch (NoChoiceMadeException ncm) {
@@ -1872,11 +2401,7 @@ public class MainController implements Initializable {
                 throw new NoChoiceMadeException();
             }
             
-            Collections.swap(
-                    state.getOpenEpic().getStories(),
-                    selectedIndex,
-                    targetIndex
-            );
+            state.getOpenEpic().swapStories(selectedIndex, targetIndex);
             
             state.mapDocumentToWindow();
         } catch (NoChoiceMadeException ncm) {
@@ -1907,11 +2432,7 @@ public class MainController implements Initializable {
                 throw new NoChoiceMadeException();
             }
             
-            Collections.swap(
-                    state.getOpenEpic().getStories(),
-                    selectedIndex,
-                    targetIndex
-            );
+            state.getOpenEpic().swapStories(selectedIndex, targetIndex);
             
             state.mapDocumentToWindow();
         } catch (NoChoiceMadeException ncm) {
@@ -1991,11 +2512,7 @@ public class MainController implements Initializable {
                 throw new NoChoiceMadeException();
             }
             
-            Collections.swap(
-                    state.getOpenEpic().getRisks(),
-                    selectedIndex,
-                    targetIndex
-            );
+            state.getOpenEpic().swapRisks(selectedIndex, targetIndex);
             
             state.mapDocumentToWindow();
         } catch (NoChoiceMadeException ncm) {
@@ -2026,11 +2543,7 @@ public class MainController implements Initializable {
                 throw new NoChoiceMadeException();
             }
             
-            Collections.swap(
-                    state.getOpenEpic().getRisks(),
-                    selectedIndex,
-                    targetIndex
-            );
+            state.getOpenEpic().swapRisks(selectedIndex, targetIndex);
             
             state.mapDocumentToWindow();
         } catch (NoChoiceMadeException ncm) {
@@ -2170,14 +2683,14 @@ public class MainController implements Initializable {
     @FXML
     private void handleAddScope() {
         try {
-            ScopeDialog addScope = new ScopeDialog(
-                    state.bundle(),
-                    state.getOpenEpic().getScope().getIncluded(),
-                    ""
-            );
+            ScopeDialog addScope = new ScopeDialog(state.bundle(), "");
+            
+            String item = addScope.show(window());
             
-            addScope.show(window());
+            state.getOpenEpic().addIncludedScope(item);
             state.mapDocumentToWindow();
+        } catch (NoChoiceMadeException ncm) {
+            // do nothing
         } catch (Exception e) {
             ErrorAlert.show(
                     state.bundle(),
@@ -2209,7 +2722,7 @@ public class MainController implements Initializable {
             );
             
             if (answer == ButtonType.YES) {
-                state.getOpenEpic().getScope().getIncluded().remove(item);
+                state.getOpenEpic().removeIncludedScope(item);
             }
             
             state.mapDocumentToWindow();
@@ -2228,14 +2741,14 @@ public class MainController implements Initializable {
     @FXML
     private void handleAddExcludedScope() {
         try {
-            ScopeDialog addExcludedScope = new ScopeDialog(
-                    state.bundle(),
-                    state.getOpenEpic().getScope().getExcluded(),
-                    ""
-            );
+            ScopeDialog addExcludedScope = new ScopeDialog(state.bundle(), "");
             
-            addExcludedScope.show(window());
+            String item = addExcludedScope.show(window());
+            
+            state.getOpenEpic().addExcludedScope(item);
             state.mapDocumentToWindow();
+        } catch (NoChoiceMadeException ncm) {
+            // do nothing
         } catch (Exception e) {
             ErrorAlert.show(
                     state.bundle(),
@@ -2267,7 +2780,7 @@ public class MainController implements Initializable {
             );
             
             if (answer == ButtonType.YES) {
-                state.getOpenEpic().getScope().getExcluded().remove(item);
+                state.getOpenEpic().removeExcludedScope(item);
             }
             
             state.mapDocumentToWindow();
@@ -2286,10 +2799,6 @@ public class MainController implements Initializable {
     @FXML
     private void handleOpenDiscoveryReportDialog() {
         try {
-            if (state.getOpenEpic() == null) {
-                throw new NoChoiceMadeException();
-            }
-            
             FXMLLoader loader = StandardWindow.load(
                     this,
                     state.bundle(),
@@ -2304,10 +2813,11 @@ public class MainController implements Initializable {
             controller.setDocument(state.getOpenDocument());
             controller.setEpic(state.getOpenEpic());
             
-            String title = state.bundle().getString("reports.discovery.title")
-                    + " ["
-                    + state.getOpenEpic().getName()
-                    + "]";
+            String title = state.bundle().getString("reports.discovery.title");
+            
+            if (state.getOpenEpic() != null) {
+                title += " [" + state.getOpenEpic().getName() + "]";
+            }
             
             Stage stage = StandardWindow.setup(
                     reportPane,
@@ -2320,8 +2830,6 @@ public class MainController implements Initializable {
             );
             
             stage.showAndWait();
-        } catch (NoChoiceMadeException ncm) {
-            // do nothing
         } catch (Exception e) {
             ErrorAlert.show(
                     state.bundle(),
@@ -2373,9 +2881,17 @@ public class MainController implements Initializable {
     
     /**
      * Exits application.
+     * 
+     * Any saves still being written are finished first.
      */
     @FXML
     private void handleApplicationExit() {
+        try {
+            saveQueue.awaitIdle();
+        } catch (InterruptedException e) {
+            // ignore
+        }
+        
         System.exit(0);
     }
 
@@ -6,6 +6,7 @@ import com.biggerconcept.sdk.reports.IReport;
 import com.biggerconcept.sdk.reports.ui.dialogs.ReportBuilderDialog;
 import com.biggerconcept.projectus.domain.Document;
 import com.biggerconcept.projectus.domain.Preferences;
+import com.biggerconcept.projectus.persistence.DocumentFormat;
 import com.biggerconcept.sdk.ui.dialogs.ErrorAlert;
 import com.biggerconcept.projectus.domain.Epic;
 import com.biggerconcept.projectus.domain.Sprint;
@@ -175,6 +176,24 @@ public class PreferencesController
      */
     @FXML
     private CheckBox darkModeCheckBox;
+    
+    /**
+     * Change journal enabled checkbox
+     */
+    @FXML
+    private CheckBox journalCheckBox;
+    
+    /**
+     * Binary file format checkbox
+     */
+    @FXML
+    private CheckBox binaryFormatCheckBox;
+    
+    /**
+     * Compressed file checkbox
+     */
+    @FXML
+    private CheckBox compressedCheckBox;
 
     /**
      * Initialize-er for the preference window
@@ -242,6 +261,7 @@ public class PreferencesController
         mapEstimatePreferencesToWindow();
         mapReportsToWindow();
         mapThemeToWindow();
+        mapStorageToWindow();
     }
     
     /**
@@ -372,6 +392,24 @@ public class PreferencesController
         darkModeCheckBox.setSelected(darkModeEnabled);
     }
     
+    /**
+     * Maps storage settings to preference window
+     */
+    private void mapStorageToWindow() {
+        boolean journalEnabled = state.getOpenDocument()
+                .getPreferences()
+                .getApplicationSettings()
+                .isTrue("journal");
+        
+        journalCheckBox.setSelected(journalEnabled);
+        
+        binaryFormatCheckBox.setSelected(
+                currentPreferences.getDocumentFormat() == DocumentFormat.SMILE
+        );
+        
+        compressedCheckBox.setSelected(currentPreferences.isCompressed());
+    }
+    
     /**
      * Maps window content to new document object for serialization.
      */
@@ -379,12 +417,38 @@ public class PreferencesController
         mapWindowToEpicPreferences();
         mapWindowToSprintPreferences();
         mapWindowToEstimatePreferences();
+        mapWindowToStoragePreferences();
         
         currentDocument.setPreferences(currentPreferences);
         
-        state.getOpenDocument().getPreferences().getApplicationSettings().set("darkMode", 
-                darkModeCheckBox.isSelected()
-        );
+        App.setConfig("darkMode", darkModeCheckBox.isSelected());
+        App.setConfig("journal", journalCheckBox.isSelected());
+    }
+    
+    /**
+     * Maps window to storage preferences.
+     * 
+     * Changing the encoding or compression means the whole document has to
+     * be written on the next save.
+     */
+    private void mapWindowToStoragePreferences() {
+        DocumentFormat format = DocumentFormat.JSON;
+        
+        if (binaryFormatCheckBox.isSelected()) {
+            format = DocumentFormat.SMILE;
+        }
+        
+        if (format != currentPreferences.getDocumentFormat()) {
+            currentPreferences.setDocumentFormat(format);
+            currentDocument.getChanges().everythingChanged();
+        }
+        
+        boolean compressed = compressedCheckBox.isSelected();
+        
+        if (compressed != currentPreferences.isCompressed()) {
+            currentPreferences.setCompressed(compressed);
+            currentDocument.getChanges().everythingChanged();
+        }
     }
     
     /**
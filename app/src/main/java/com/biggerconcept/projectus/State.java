@@ -5,6 +5,7 @@ import com.biggerconcept.sdk.reports.elements.Content;
 import com.biggerconcept.projectus.domain.Document;
 import com.biggerconcept.projectus.domain.Epic;
 import com.biggerconcept.projectus.reports.Element;
+import com.biggerconcept.projectus.reports.RenderContext;
 import com.biggerconcept.projectus.reports.Report;
 import java.util.ResourceBundle;
 
@@ -20,6 +21,7 @@ public class State {
    private Epic openEpic;
    private Document openDocument;
    private ResourceBundle bundle;
+   private RenderContext renderContext;
    
    public State(MainController controller, ResourceBundle rb) {
        this.mainController = controller;
@@ -47,6 +49,14 @@ public class State {
        return Element.availableContent(this);
    }
    
+   public synchronized RenderContext getRenderContext() {
+       if (renderContext == null || !renderContext.isFor(this)) {
+           renderContext = new RenderContext(openDocument, openEpic);
+       }
+       
+       return renderContext;
+   }
+   
    public MainController mainController() {
        return mainController;
    }
@@ -80,7 +80,7 @@ public class Actor {
      * @param value UUID to set as id
      */
     public void setId(UUID value) {
-        id = value;
+        changeId(value);
     }
     
     /**
@@ -89,7 +89,7 @@ public class Actor {
      * @param value string to set as id
      */
     public void setId(String value) {
-        id = UUID.fromString(value);
+        changeId(UUID.fromString(value));
     }
     
     /**
@@ -99,6 +99,7 @@ public class Actor {
      */
     public void setName(String value) {
         name = value;
+        markChanged();
     }
     
     /**
@@ -111,4 +112,29 @@ public class Actor {
         return name;
     }
     
+    /**
+     * Changes the id, and moves this actor to its new id in the
+     * parent document.
+     * 
+     * @param value new id
+     */
+    private void changeId(UUID value) {
+        UUID previous = id;
+        id = value;
+        
+        if (parent != null && previous != null && !previous.equals(value)) {
+            parent.reindexActor(previous, this);
+            markChanged();
+        }
+    }
+    
+    /**
+     * Records a change to this actor with the parent document.
+     */
+    private void markChanged() {
+        if (parent != null && parent.findActor(id) == this) {
+            parent.getChanges().changed(id, this);
+        }
+    }
+    
 }
@@ -1,13 +1,29 @@
 package com.biggerconcept.projectus.domain;
 
+import com.biggerconcept.projectus.helpers.Date;
+import com.biggerconcept.projectus.persistence.AtomicDocumentWriter;
+import com.biggerconcept.projectus.persistence.DocumentFormat;
+import com.biggerconcept.projectus.persistence.DocumentJournal;
+import com.biggerconcept.projectus.persistence.DocumentMapper;
+import com.biggerconcept.projectus.persistence.DocumentStreams;
+import com.biggerconcept.projectus.persistence.DocumentTransaction;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * In memory representation of file.
@@ -75,16 +91,67 @@ public class Document {
     @JsonInclude(Include.NON_NULL)
     private ArrayList<Risk> risks;
     
+    /**
+     * Index of document epics by id.
+     */
+    @JsonIgnore
+    private final HashMap<UUID, Epic> epicIndex;
+    
+    /**
+     * Index of document actors by id.
+     */
+    @JsonIgnore
+    private final HashMap<UUID, Actor> actorIndex;
+    
+    /**
+     * Index of document stories by id.
+     */
+    @JsonIgnore
+    private final HashMap<UUID, Story> storyIndex;
+    
+    /**
+     * Index of document risks by id.
+     */
+    @JsonIgnore
+    private final HashMap<UUID, Risk> riskIndex;
+    
+    /**
+     * Revision of the linkable document collections.
+     * 
+     * This is incremented whenever stories or risks are added to or removed
+     * from the document, so that epics can tell when their resolved links
+     * are stale.
+     */
+    @JsonIgnore
+    private int linkRevision;
+    
+    /**
+     * Changes made since the document was last written.
+     */
+    @JsonIgnore
+    private final DocumentChanges changes;
+    
+    /**
+     * Latest status snapshot.
+     */
+    @JsonIgnore
+    private volatile StatusSnapshot statusSnapshot;
+    
     /**
      * Loads file from disk.
      * 
-     * By default empty or null values are to be omitted from the parser.
+     * The shared document reader is used, so the document model is only
+     * introspected once per application run. The encoding of the file is
+     * detected from its header, and compressed files are decompressed as
+     * they are read.
      * 
-     * This will then attempt to de-serialize a locale from a YAML locale file  
-     * from disk. This may fail throwing an IO Exception which will be thrown to
-     * the calling method.
+     * This will then attempt to de-serialize a document from disk. This may
+     * fail throwing an IO Exception which will be thrown to the calling 
+     * method.
      * 
-     * The de-serialized Locale will then be returned to the caller.
+     * An interrupted transaction for the file is finished first. Any
+     * journal of changes for the file is replayed over the document, and
+     * the de-serialized document will then be returned to the caller.
      * 
      * @param file file to load from disk
      * 
@@ -93,14 +160,53 @@ public class Document {
      * @throws IOException when unable to load file from disk
      */
     public static Document load(File file) throws IOException {
-        ObjectMapper oMap = new ObjectMapper();
+        Document doc;
+        
+        DocumentTransaction.recover(file);
+        
+        try (InputStream in = DocumentStreams.open(file)) {
+            doc = DocumentMapper
+                    .reader(DocumentFormat.detect(in))
+                    .readValue(in);
+        }
+        
+        doc.setFile(file);
+        
+        DocumentJournal.replay(doc);
+        doc.getChanges().clear();
+        
+        return doc;
+    }
+    
+    /**
+     * Reads file from disk without changing any file.
+     * 
+     * This is load for tools that only report on documents, and for
+     * watching a document that another process may be writing. An
+     * interrupted transaction is left for the next load to finish, so the
+     * document is read as it was before the transaction. The journal is
+     * replayed, but a record cut short is skipped rather than cut off.
+     * 
+     * @param file file to read from disk
+     * 
+     * @return read document
+     * 
+     * @throws IOException when unable to read file from disk
+     */
+    public static Document read(File file) throws IOException {
+        Document doc;
         
-        oMap.setSerializationInclusion(Include.NON_NULL);
-        oMap.setSerializationInclusion(Include.NON_EMPTY);
+        try (InputStream in = DocumentStreams.open(file)) {
+            doc = DocumentMapper
+                    .reader(DocumentFormat.detect(in))
+                    .readValue(in);
+        }
         
-        Document doc = oMap.readValue(file, Document.class);
         doc.setFile(file);
         
+        DocumentJournal.read(doc);
+        doc.getChanges().clear();
+        
         return doc;
     }
     
@@ -109,6 +215,12 @@ public class Document {
      */
     public Document() {
         this.id = UUID.randomUUID();
+        this.epicIndex = new HashMap<>();
+        this.actorIndex = new HashMap<>();
+        this.storyIndex = new HashMap<>();
+        this.riskIndex = new HashMap<>();
+        this.changes = new DocumentChanges();
+        this.preferences = Preferences.defaultPreferences();
     }
     
     /**
@@ -152,10 +264,6 @@ public class Document {
      * @return result
      */
     public boolean hasEpic(Epic epic) {
-        if (epics == null) {
-            return false;
-        }
-        
         return findEpic(epic.getId()) != null;
     }
     
@@ -205,6 +313,8 @@ public class Document {
         actor.setParent(this);
         
         actors.add(actor);
+        actorIndex.put(actor.getId(), actor);
+        changes.changed(actor.getId(), actor);
     }
     
     /**
@@ -220,6 +330,9 @@ public class Document {
         story.setParent(this);
         
         stories.add(story);
+        storyIndex.put(story.getId(), story);
+        linkRevision += 1;
+        changes.changed(story.getId(), story);
     }
 
     /**
@@ -235,6 +348,9 @@ public class Document {
         risk.setParent(this);
 
         risks.add(risk);
+        riskIndex.put(risk.getId(), risk);
+        linkRevision += 1;
+        changes.changed(risk.getId(), risk);
     }
     
     /**
@@ -250,6 +366,8 @@ public class Document {
         epic.setParent(this);
 
         epics.add(epic);
+        epicIndex.put(epic.getId(), epic);
+        changes.changed(epic.getId(), epic);
     }
     
     /**
@@ -259,6 +377,8 @@ public class Document {
      */
     public void removeActor(Actor actor) {
         actors.remove(actor);
+        actorIndex.remove(actor.getId(), actor);
+        changes.removed(actor.getId(), actor);
     }
     
     /**
@@ -268,6 +388,9 @@ public class Document {
      */
     public void removeStory(Story story) {
         stories.remove(story);
+        storyIndex.remove(story.getId(), story);
+        linkRevision += 1;
+        changes.removed(story.getId(), story);
     }
 
     /**
@@ -277,6 +400,9 @@ public class Document {
      */
     public void removeRisk(Risk risk) {
         risks.remove(risk);
+        riskIndex.remove(risk.getId(), risk);
+        linkRevision += 1;
+        changes.removed(risk.getId(), risk);
     }
     
     /**
@@ -286,6 +412,234 @@ public class Document {
      */
     public void removeEpic(Epic epic) {
         epics.remove(epic);
+        epicIndex.remove(epic.getId(), epic);
+        changes.removed(epic.getId(), epic);
+    }
+    
+    /**
+     * Swaps the positions of two epics.
+     * 
+     * @param from index of epic to move
+     * @param to index to move epic to
+     */
+    public void swapEpics(int from, int to) {
+        Collections.swap(epics, from, to);
+        changes.epicOrderChanged();
+    }
+    
+    /**
+     * Orders epics by the given ids.
+     * 
+     * Epics that are not in the list keep their relative order after the
+     * listed epics.
+     * 
+     * @param ids epic ids in order
+     * 
+     * @return true when the order has changed
+     */
+    public boolean orderEpics(List<UUID> ids) {
+        if (epics == null) {
+            return false;
+        }
+        
+        LinkedHashSet<Epic> ordered = new LinkedHashSet<>();
+        
+        for (UUID id : ids) {
+            Epic e = findEpic(id);
+            
+            if (e != null) {
+                ordered.add(e);
+            }
+        }
+        
+        ordered.addAll(epics);
+        
+        if (new ArrayList<>(ordered).equals(epics)) {
+            return false;
+        }
+        
+        epics.clear();
+        epics.addAll(ordered);
+        changes.epicOrderChanged();
+        
+        return true;
+    }
+    
+    /**
+     * Replaces an epic with another of the same id.
+     * 
+     * The replacement takes the position of the epic it replaces. When the
+     * document does not have an epic with the same id, the epic is added.
+     * 
+     * @param epic replacement epic
+     */
+    public void replaceEpic(Epic epic) {
+        Epic existing = findEpic(epic.getId());
+        
+        if (existing == null) {
+            addEpic(epic);
+            return;
+        }
+        
+        epic.setParent(this);
+        
+        epics.set(epics.indexOf(existing), epic);
+        epicIndex.put(epic.getId(), epic);
+        changes.changed(epic.getId(), epic);
+    }
+    
+    /**
+     * Replaces an actor with another of the same id.
+     * 
+     * The replacement takes the position of the actor it replaces. When the
+     * document does not have an actor with the same id, the actor is added.
+     * 
+     * @param actor replacement actor
+     */
+    public void replaceActor(Actor actor) {
+        Actor existing = findActor(actor.getId());
+        
+        if (existing == null) {
+            addActor(actor);
+            return;
+        }
+        
+        actor.setParent(this);
+        
+        actors.set(actors.indexOf(existing), actor);
+        actorIndex.put(actor.getId(), actor);
+        changes.changed(actor.getId(), actor);
+    }
+    
+    /**
+     * Replaces a story with another of the same id.
+     * 
+     * The replacement takes the position of the story it replaces. When the
+     * document does not have a story with the same id, the story is added.
+     * 
+     * @param story replacement story
+     */
+    public void replaceStory(Story story) {
+        Story existing = findStory(story.getId());
+        
+        if (existing == null) {
+            addStory(story);
+            return;
+        }
+        
+        story.setParent(this);
+        
+        stories.set(stories.indexOf(existing), story);
+        storyIndex.put(story.getId(), story);
+        linkRevision += 1;
+        changes.changed(story.getId(), story);
+    }
+    
+    /**
+     * Replaces a risk with another of the same id.
+     * 
+     * The replacement takes the position of the risk it replaces. When the
+     * document does not have a risk with the same id, the risk is added.
+     * 
+     * @param risk replacement risk
+     */
+    public void replaceRisk(Risk risk) {
+        Risk existing = findRisk(risk.getId());
+        
+        if (existing == null) {
+            addRisk(risk);
+            return;
+        }
+        
+        risk.setParent(this);
+        
+        risks.set(risks.indexOf(existing), risk);
+        riskIndex.put(risk.getId(), risk);
+        linkRevision += 1;
+        changes.changed(risk.getId(), risk);
+    }
+    
+    /**
+     * Moves an epic to its new id in the index.
+     * 
+     * This is called by the epic when its id changes. The epic is
+     * recorded as removed under its previous id, and records its change
+     * under the new id itself.
+     * 
+     * @param previous id the epic had
+     * @param epic epic with its new id
+     */
+    void reindexEpic(UUID previous, Epic epic) {
+        reindex(epicIndex, previous, epic.getId(), epic);
+    }
+    
+    /**
+     * Moves an actor to its new id in the index.
+     * 
+     * @param previous id the actor had
+     * @param actor actor with its new id
+     */
+    void reindexActor(UUID previous, Actor actor) {
+        reindex(actorIndex, previous, actor.getId(), actor);
+    }
+    
+    /**
+     * Moves a story to its new id in the index.
+     * 
+     * Epics link to stories by id, so their links are resolved again.
+     * 
+     * @param previous id the story had
+     * @param story story with its new id
+     */
+    void reindexStory(UUID previous, Story story) {
+        if (reindex(storyIndex, previous, story.getId(), story)) {
+            linkRevision += 1;
+        }
+    }
+    
+    /**
+     * Moves a risk to its new id in the index.
+     * 
+     * Epics link to risks by id, so their links are resolved again.
+     * 
+     * @param previous id the risk had
+     * @param risk risk with its new id
+     */
+    void reindexRisk(UUID previous, Risk risk) {
+        if (reindex(riskIndex, previous, risk.getId(), risk)) {
+            linkRevision += 1;
+        }
+    }
+    
+    /**
+     * Moves an item to its new id in an index.
+     * 
+     * Items that are not in the index under their previous id are not
+     * part of this document, and are left alone.
+     * 
+     * @param <T> kind of item
+     * @param index index to update
+     * @param previous id the item had
+     * @param current id the item has now
+     * @param item item that changed id
+     * 
+     * @return true when the index was updated
+     */
+    private <T> boolean reindex(
+            HashMap<UUID, T> index,
+            UUID previous,
+            UUID current,
+            T item
+    ) {
+        if (index.get(previous) != item) {
+            return false;
+        }
+        
+        index.remove(previous);
+        index.put(current, item);
+        changes.removed(previous, item);
+        
+        return true;
     }
     
     /**
@@ -297,26 +651,25 @@ public class Document {
      * @return found actor
      */
     public Actor findActor(UUID id) {
-        for (Actor a : actors) {
-            if (a.getId() == id) {
-                return a;
-            }
-        }
-        
-        return null;
+        return actorIndex.get(id);
     }
     
     /**
      * Find actors by ids.
      * 
+     * Actors are returned in the order of the given ids. Any id that is
+     * not in the document is skipped.
+     * 
      * @param ids list of UUIDs to find
      * @return found actors
      */
     public ArrayList<Actor> findActors(ArrayList<UUID> ids) {
-        ArrayList<Actor> found = new ArrayList<>();
+        ArrayList<Actor> found = new ArrayList<>(ids.size());
         
-        for (Actor a : actors) {
-            if (ids.contains(a.getId())) {
+        for (UUID id : ids) {
+            Actor a = actorIndex.get(id);
+            
+            if (a != null) {
                 found.add(a);
             }
         }
@@ -333,26 +686,25 @@ public class Document {
      * @return found epic
      */
     public Epic findEpic(UUID id) {
-        for (Epic e : epics) {
-            if (e.getId() == id) {
-                return e;
-            }
-        }
-        
-        return null;
+        return epicIndex.get(id);
     }
     
     /**
      * Find epics by ids.
      * 
+     * Epics are returned in the order of the given ids. Any id that is
+     * not in the document is skipped.
+     * 
      * @param ids list of epic UUID
      * @return found epics
      */
     public ArrayList<Epic> findEpics(ArrayList<UUID> ids) {
-        ArrayList<Epic> found = new ArrayList<>();
+        ArrayList<Epic> found = new ArrayList<>(ids.size());
         
-        for (Epic e : epics) {
-            if (ids.contains(e.getId())) {
+        for (UUID id : ids) {
+            Epic e = epicIndex.get(id);
+            
+            if (e != null) {
                 found.add(e);
             }
         }
@@ -369,26 +721,25 @@ public class Document {
      * @return found risks
      */
     public Risk findRisk(UUID id) {
-        for (Risk r : risks) {
-            if (r.getId() == id) {
-                return r;
-            }
-        }
-        
-        return null;
+        return riskIndex.get(id);
     }
     
     /**
      * Find risks by ids.
      * 
+     * Risks are returned in the order of the given ids. Any id that is
+     * not in the document is skipped.
+     * 
      * @param ids list of risk UUIDs
      * @return found risks
      */
     public ArrayList<Risk> findRisks(ArrayList<UUID> ids) {
-        ArrayList<Risk> found = new ArrayList<>();
+        ArrayList<Risk> found = new ArrayList<>(ids.size());
         
-        for (Risk r : risks) {
-            if (ids.contains(r.getId())) {
+        for (UUID id : ids) {
+            Risk r = riskIndex.get(id);
+            
+            if (r != null) {
                 found.add(r);
             }
         }
@@ -405,26 +756,25 @@ public class Document {
      * @return found story
      */
     public Story findStory(UUID id) {
-        for (Story s : stories) {
-            if (s.getId().toString() == id.toString()) {
-                return s;
-            }
-        }
-        
-        return null;
+        return storyIndex.get(id);
     }
     
     /**
      * Find stories by ids.
      * 
+     * Stories are returned in the order of the given ids. Any id that is
+     * not in the document is skipped.
+     * 
      * @param ids list of story UUIDs
      * @return found stories
      */
     public ArrayList<Story> findStories(ArrayList<UUID> ids) {
-        ArrayList<Story> found = new ArrayList<>();
+        ArrayList<Story> found = new ArrayList<>(ids.size());
         
-        for (Story s : stories) {
-            if (ids.contains(s.getId())) {
+        for (UUID id : ids) {
+            Story s = storyIndex.get(id);
+            
+            if (s != null) {
                 found.add(s);
             }
         }
@@ -435,15 +785,24 @@ public class Document {
     /**
      * Saves document to disk.
      * 
+     * The document is written to a temporary file which then replaces the
+     * document file, so an interrupted save does not corrupt the file.
+     * 
+     * As the whole document is written, any journal of changes for the
+     * file is discarded.
+     * 
+     * Nothing is written when the document has not changed since it was
+     * loaded or last written, and the file is still there.
+     * 
      * @throws IOException when unable to save document to disk
      */
-    public void save() throws IOException {       
-        ObjectMapper oMap = new ObjectMapper();
-        
-        oMap.setSerializationInclusion(Include.NON_NULL);
-        oMap.setSerializationInclusion(Include.NON_EMPTY);
+    public void save() throws IOException {
+        if (changes.isEmpty() && file.exists()) {
+            return;
+        }
         
-        oMap.writeValue(file, this);
+        AtomicDocumentWriter.write(file, this);
+        changes.clear();
     }
     
     /**
@@ -455,6 +814,15 @@ public class Document {
         return id;
     }
     
+    /**
+     * Getter for link revision.
+     * 
+     * @return revision of the document stories and risks
+     */
+    public int getLinkRevision() {
+        return linkRevision;
+    }
+    
     /**
      * Getter for file.
      * 
@@ -470,10 +838,6 @@ public class Document {
      * @return document preferences
      */
     public Preferences getPreferences() {
-        if (preferences == null) {
-            return Preferences.defaultPreferences();
-        }
-
         return preferences;
     }
     
@@ -567,6 +931,7 @@ public class Document {
      */
     public void setId(UUID value) {
         id = value;
+        changes.everythingChanged();
     }
     
     /**
@@ -576,6 +941,7 @@ public class Document {
      */
     public void setId(String value) {
         id = UUID.fromString(value);
+        changes.everythingChanged();
     }
 
     /**
@@ -584,16 +950,29 @@ public class Document {
      * @param value file to set
      */
     public void setFile(File value) {
+        if (file != null && !file.equals(value)) {
+            changes.everythingChanged();
+        }
+        
         file = value;
     }
     
     /**
      * Setter for preferences.
      * 
-     * @param value preferences to set
+     * A document is given its own default preferences when it is created,
+     * or when it is given none. They are not shared with other documents,
+     * as preferences are edited in place.
+     * 
+     * @param value preferences to set, or null for the defaults
      */
     public void setPreferences(Preferences value) {
+        if (value == null) {
+            value = Preferences.defaultPreferences();
+        }
+        
         preferences = value;
+        changes.headerChanged();
     }
     
     /**
@@ -603,10 +982,14 @@ public class Document {
      */
     public void setActors(ArrayList<Actor> value) {
         actors = value;
+        actorIndex.clear();
         
         for (Actor a : actors) {
             a.setParent(this);
+            actorIndex.put(a.getId(), a);
         }
+        
+        changes.everythingChanged();
     }
     
     /**
@@ -616,10 +999,15 @@ public class Document {
      */
     public void setRisks(ArrayList<Risk> value) {
         risks = value;
+        riskIndex.clear();
+        linkRevision += 1;
         
         for (Risk r : risks) {
             r.setParent(this);
+            riskIndex.put(r.getId(), r);
         }
+        
+        changes.everythingChanged();
     }
     
     /**
@@ -629,10 +1017,15 @@ public class Document {
      */
     public void setStories(ArrayList<Story> value) {
         stories = value;
+        storyIndex.clear();
+        linkRevision += 1;
         
         for (Story s : stories) {
             s.setParent(this);
+            storyIndex.put(s.getId(), s);
         }
+        
+        changes.everythingChanged();
     }
     
     /**
@@ -641,7 +1034,12 @@ public class Document {
      * @param value title to set
      */
     public void setTitle(String value) {
+        if (Objects.equals(title, value)) {
+            return;
+        }
+        
         title = value;
+        changes.headerChanged();
     }
     
     /**
@@ -650,7 +1048,12 @@ public class Document {
      * @param value date to set as start date
      */
     public void setStart(long value) {
+        if (start == value) {
+            return;
+        }
+        
         start = value;
+        changes.headerChanged();
     }
     
     /**
@@ -659,7 +1062,12 @@ public class Document {
      * @param value date to set as end date
      */
     public void setEnd(long value) {
+        if (end == value) {
+            return;
+        }
+        
         end = value;
+        changes.headerChanged();
     }
     
     /**
@@ -669,10 +1077,36 @@ public class Document {
      */
     public void setEpics(ArrayList<Epic> value) {
         epics = value;
+        epicIndex.clear();
         
         for (Epic e : epics) {
             e.setParent(this);
+            epicIndex.put(e.getId(), e);
         }
+        
+        changes.everythingChanged();
+    }
+    
+    /**
+     * Getter for revision.
+     * 
+     * The revision moves on with every change made to the document, its
+     * epics and their tasks, actors, stories and risks.
+     * 
+     * @return document revision
+     */
+    @JsonIgnore
+    public long getRevision() {
+        return changes.getRevision();
+    }
+    
+    /**
+     * Getter for changes made since the document was last written.
+     * 
+     * @return document changes
+     */
+    public DocumentChanges getChanges() {
+        return changes;
     }
     
     /**
@@ -684,6 +1118,72 @@ public class Document {
         identifyStories();
     }
     
+    /**
+     * Merges changes from another copy of this document.
+     * 
+     * Epics, actors, stories and risks are matched by ID, and those that
+     * differ in the other copy are taken from it. The same goes for the
+     * title, dates and preferences, and for the order of the epics.
+     * 
+     * Anything changed here since the document was last written is kept,
+     * and its changes stay recorded so that they are written on the next
+     * save. Nothing is merged when the whole document has changed here.
+     * 
+     * @param other other copy of the document, such as the file on disk
+     * 
+     * @return changes taken from the other copy
+     */
+    public DocumentChanges merge(Document other) {
+        DocumentChanges local = changes.copy();
+        DocumentChanges merged = new DocumentChanges();
+        
+        if (local.isEverythingChanged()) {
+            return merged;
+        }
+        
+        ObjectMapper mapper = DocumentMapper.mapper();
+        
+        mergeItems(
+                mapper, local, merged,
+                getActors(), other.getActors(), Actor::getId,
+                this::replaceActor, this::removeActor
+        );
+        
+        mergeItems(
+                mapper, local, merged,
+                getStories(), other.getStories(), Story::getId,
+                this::replaceStory, this::removeStory
+        );
+        
+        mergeItems(
+                mapper, local, merged,
+                getRisks(), other.getRisks(), Risk::getId,
+                this::replaceRisk, this::removeRisk
+        );
+        
+        mergeItems(
+                mapper, local, merged,
+                getEpics(), other.getEpics(), Epic::getId,
+                this::replaceEpic, this::removeEpic
+        );
+        
+        if (!local.isHeaderChanged() && !sameHeader(mapper, other)) {
+            setTitle(other.getTitle());
+            setStart(other.getStart());
+            setEnd(other.getEnd());
+            setPreferences(other.getPreferences());
+            merged.headerChanged();
+        }
+        
+        if (!local.isEpicOrderChanged() && orderEpicsLike(other)) {
+            merged.epicOrderChanged();
+        }
+        
+        changes.reset(local);
+        
+        return merged;
+    }
+    
     /**
      * Returns overall status.
      * 
@@ -693,6 +1193,125 @@ public class Document {
         return new Status(this);
     }
     
+    /**
+     * Returns a snapshot of the overall status.
+     * 
+     * The snapshot is kept until the document changes or the day moves
+     * on, so reading it again is cheap.
+     * 
+     * @return overall status snapshot
+     */
+    public StatusSnapshot statusSnapshot() {
+        long revision = getRevision();
+        long day = Date.nowEpochDay();
+        StatusSnapshot snapshot = statusSnapshot;
+        
+        if (snapshot == null || !snapshot.isFor(revision, day)) {
+            snapshot = new StatusSnapshot(this, revision, day);
+            statusSnapshot = snapshot;
+        }
+        
+        return snapshot;
+    }
+    
+    /**
+     * Merges one kind of item from another copy of this document.
+     * 
+     * @param <T> kind of item
+     * @param mapper mapper to compare items with
+     * @param local changes made here
+     * @param merged changes taken from the other copy
+     * @param mine items in this document
+     * @param theirs items in the other copy
+     * @param id item id accessor
+     * @param replace replaces or adds an item in this document
+     * @param remove removes an item from this document
+     */
+    private static <T> void mergeItems(
+            ObjectMapper mapper,
+            DocumentChanges local,
+            DocumentChanges merged,
+            List<T> mine,
+            List<T> theirs,
+            Function<T, UUID> id,
+            Consumer<T> replace,
+            Consumer<T> remove
+    ) {
+        HashMap<UUID, T> current = new HashMap<>();
+        HashSet<UUID> kept = new HashSet<>();
+        
+        for (T item : mine) {
+            current.put(id.apply(item), item);
+        }
+        
+        for (T item : theirs) {
+            UUID itemId = id.apply(item);
+            kept.add(itemId);
+            
+            if (local.isChanged(itemId) || local.isRemoved(itemId)) {
+                continue;
+            }
+            
+            T existing = current.get(itemId);
+            
+            if (existing != null && mapper
+                    .valueToTree(existing)
+                    .equals(mapper.valueToTree(item))) {
+                continue;
+            }
+            
+            replace.accept(item);
+            merged.changed(itemId, item);
+        }
+        
+        for (T item : current.values()) {
+            UUID itemId = id.apply(item);
+            
+            if (!kept.contains(itemId) && !local.isChanged(itemId)) {
+                remove.accept(item);
+                merged.removed(itemId, item);
+            }
+        }
+    }
+    
+    /**
+     * Returns true when another copy of this document has the same title,
+     * dates and preferences.
+     * 
+     * @param mapper mapper to compare preferences with
+     * @param other other copy of document
+     * 
+     * @return result
+     */
+    private boolean sameHeader(ObjectMapper mapper, Document other) {
+        return getTitle().equals(other.getTitle())
+                && getStart() == other.getStart()
+                && getEnd() == other.getEnd()
+                && mapper.valueToTree(getPreferences()).equals(
+                        mapper.valueToTree(other.getPreferences())
+                );
+    }
+    
+    /**
+     * Orders epics the same as another copy of this document.
+     * 
+     * Epics that are not in the other copy keep their order after the
+     * others.
+     * 
+     * @param other other copy of document
+     * 
+     * @return true when the order has changed
+     */
+    private boolean orderEpicsLike(Document other) {
+        ArrayList<UUID> ids = new ArrayList<>();
+        
+        for (Epic e : other.getEpics()) {
+            ids.add(e.getId());
+        }
+        
+        return orderEpics(ids);
+    }
+    
     /**
      * Rebuilds identifiers for epics and their tasks.
      */
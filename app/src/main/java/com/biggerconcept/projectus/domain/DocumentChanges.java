@@ -0,0 +1,281 @@
+package com.biggerconcept.projectus.domain;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Changes made to a document since it was last written.
+ * 
+ * Epics, actors, stories and risks are tracked as whole items by id, so
+ * that a change can be written out as the items that changed rather than
+ * as the whole document.
+ * 
+ * Changes that can not be described item by item, such as replacing a
+ * whole collection, mark the whole document as changed.
+ * 
+ * Every recorded change also moves the revision on. The revision is not
+ * reset when changes are cleared, so it can be used to tell whether the
+ * document has changed since it was last looked at.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentChanges {
+    /**
+     * Changed items by id.
+     */
+    private final LinkedHashMap<UUID, Object> changed;
+    
+    /**
+     * Removed items by id.
+     */
+    private final LinkedHashMap<UUID, Object> removed;
+    
+    /**
+     * True when the document title, dates or preferences have changed.
+     */
+    private boolean headerChanged;
+    
+    /**
+     * True when the order of the document epics has changed.
+     */
+    private boolean epicOrderChanged;
+    
+    /**
+     * True when the whole document has changed.
+     */
+    private boolean everythingChanged;
+    
+    /**
+     * Number of changes recorded.
+     */
+    private long revision;
+    
+    /**
+     * Constructor for document changes.
+     */
+    public DocumentChanges() {
+        this.changed = new LinkedHashMap<>();
+        this.removed = new LinkedHashMap<>();
+    }
+    
+    /**
+     * Records that an item has been added or changed.
+     * 
+     * @param id id of item
+     * @param item changed item
+     */
+    public void changed(UUID id, Object item) {
+        removed.remove(id);
+        changed.put(id, item);
+        revision += 1;
+    }
+    
+    /**
+     * Records that an item has been removed.
+     * 
+     * @param id id of item
+     * @param item removed item
+     */
+    public void removed(UUID id, Object item) {
+        changed.remove(id);
+        removed.put(id, item);
+        revision += 1;
+    }
+    
+    /**
+     * Records that the document title, dates or preferences have changed.
+     */
+    public void headerChanged() {
+        headerChanged = true;
+        revision += 1;
+    }
+    
+    /**
+     * Records that the order of the document epics has changed.
+     */
+    public void epicOrderChanged() {
+        epicOrderChanged = true;
+        revision += 1;
+    }
+    
+    /**
+     * Records that the whole document has changed.
+     */
+    public void everythingChanged() {
+        everythingChanged = true;
+        revision += 1;
+    }
+    
+    /**
+     * Clears recorded changes.
+     */
+    public void clear() {
+        changed.clear();
+        removed.clear();
+        headerChanged = false;
+        epicOrderChanged = false;
+        everythingChanged = false;
+    }
+    
+    /**
+     * Returns a copy of the recorded changes.
+     * 
+     * @return copy of changes
+     */
+    public DocumentChanges copy() {
+        DocumentChanges copy = new DocumentChanges();
+        copy.reset(this);
+        
+        return copy;
+    }
+    
+    /**
+     * Replaces the recorded changes with a copy of other changes.
+     * 
+     * The revision is kept.
+     * 
+     * @param other changes to copy
+     */
+    public void reset(DocumentChanges other) {
+        changed.clear();
+        changed.putAll(other.changed);
+        removed.clear();
+        removed.putAll(other.removed);
+        headerChanged = other.headerChanged;
+        epicOrderChanged = other.epicOrderChanged;
+        everythingChanged = other.everythingChanged;
+    }
+    
+    /**
+     * Records earlier changes again, such as changes that were cleared
+     * for a write that then failed.
+     * 
+     * Changes recorded since take precedence, so an item that has been
+     * changed or removed again keeps its latest state.
+     * 
+     * @param earlier changes to record again
+     */
+    public void include(DocumentChanges earlier) {
+        for (UUID id : earlier.changed.keySet()) {
+            if (!changed.containsKey(id) && !removed.containsKey(id)) {
+                changed.put(id, earlier.changed.get(id));
+            }
+        }
+        
+        for (UUID id : earlier.removed.keySet()) {
+            if (!changed.containsKey(id) && !removed.containsKey(id)) {
+                removed.put(id, earlier.removed.get(id));
+            }
+        }
+        
+        headerChanged = headerChanged || earlier.headerChanged;
+        epicOrderChanged = epicOrderChanged || earlier.epicOrderChanged;
+        everythingChanged = everythingChanged || earlier.everythingChanged;
+        revision += 1;
+    }
+    
+    /**
+     * Returns true when the item with the given id has been added or
+     * changed.
+     * 
+     * @param id id of item
+     * 
+     * @return result
+     */
+    public boolean isChanged(UUID id) {
+        return changed.containsKey(id);
+    }
+    
+    /**
+     * Returns true when the item with the given id has been removed.
+     * 
+     * @param id id of item
+     * 
+     * @return result
+     */
+    public boolean isRemoved(UUID id) {
+        return removed.containsKey(id);
+    }
+    
+    /**
+     * Returns true when there are no recorded changes.
+     * 
+     * @return result
+     */
+    public boolean isEmpty() {
+        return changed.isEmpty()
+                && removed.isEmpty()
+                && !headerChanged
+                && !epicOrderChanged
+                && !everythingChanged;
+    }
+    
+    /**
+     * Getter for changed items.
+     * 
+     * @return changed items
+     */
+    public Collection<Object> getChanged() {
+        return changed.values();
+    }
+    
+    /**
+     * Getter for removed items.
+     * 
+     * @return removed items
+     */
+    public Collection<Object> getRemoved() {
+        return removed.values();
+    }
+    
+    /**
+     * Getter for removed items by the id they were removed under.
+     * 
+     * An item that has changed id is removed under its previous id, so
+     * the id of the item itself is not the id to remove.
+     * 
+     * @return removed items by id
+     */
+    public Map<UUID, Object> getRemovedById() {
+        return Collections.unmodifiableMap(removed);
+    }
+    
+    /**
+     * Getter for header changed.
+     * 
+     * @return header changed
+     */
+    public boolean isHeaderChanged() {
+        return headerChanged;
+    }
+    
+    /**
+     * Getter for epic order changed.
+     * 
+     * @return epic order changed
+     */
+    public boolean isEpicOrderChanged() {
+        return epicOrderChanged;
+    }
+    
+    /**
+     * Getter for revision.
+     * 
+     * @return number of changes recorded
+     */
+    public long getRevision() {
+        return revision;
+    }
+    
+    /**
+     * Getter for everything changed.
+     * 
+     * @return everything changed
+     */
+    public boolean isEverythingChanged() {
+        return everythingChanged;
+    }
+}
@@ -7,15 +7,31 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Objects;
 import java.util.ResourceBundle;
 import java.util.UUID;
 
 /**
  * Representation of a project.
  * 
+ * Task totals, such as the number of complete tasks and the number of
+ * tasks of each size, are kept up to date as tasks are added, removed and
+ * changed. Reading the progress of an epic does not walk its tasks.
+ * 
+ * Tasks are held as Task objects, with their positions indexed by id, so
+ * tasks can be found without walking them either.
+ * 
  * @author Andrew Bigger
  */
 public class Epic {
+    /**
+     * Task sizes.
+     */
+    private static final TaskSize[] SIZES = TaskSize.values();
+    
     /**
      * Epic id.
      */
@@ -88,6 +104,75 @@ public class Epic {
     @JsonIgnore
     private Document parent;
     
+    /**
+     * Number of changes made to the epic and its tasks.
+     */
+    @JsonIgnore
+    private long revision;
+    
+    /**
+     * Resolved document stories for the story links.
+     */
+    @JsonIgnore
+    private ArrayList<Story> documentStories;
+    
+    /**
+     * Document link revision the resolved stories were built against.
+     */
+    @JsonIgnore
+    private int documentStoriesRevision;
+    
+    /**
+     * Resolved document risks for the risk links.
+     */
+    @JsonIgnore
+    private ArrayList<Risk> documentRisks;
+    
+    /**
+     * Document link revision the resolved risks were built against.
+     */
+    @JsonIgnore
+    private int documentRisksRevision;
+    
+    /**
+     * Number of tasks of each size, by size ordinal.
+     */
+    @JsonIgnore
+    private final int[] sizeCounts = new int[SIZES.length];
+    
+    /**
+     * Number of complete tasks of each size, by size ordinal.
+     */
+    @JsonIgnore
+    private final int[] completeSizeCounts = new int[SIZES.length];
+    
+    /**
+     * Number of complete tasks.
+     */
+    @JsonIgnore
+    private int completeCount;
+    
+    /**
+     * Number of tasks in progress.
+     */
+    @JsonIgnore
+    private int inProgressCount;
+    
+    /**
+     * Number of tasks with a description.
+     */
+    @JsonIgnore
+    private int describedCount;
+    
+    /**
+     * Positions of tasks by id.
+     * 
+     * Kept up to date as tasks are added, removed, moved and given new
+     * ids. When tasks share an id, the first of them is indexed.
+     */
+    @JsonIgnore
+    private HashMap<UUID, Integer> taskIndex;
+    
     /**
      * Default constructor.
      */
@@ -97,6 +182,7 @@ public class Epic {
         this.name = "";
         this.summary = "";
         this.tasks = new ArrayList<>();
+        this.taskIndex = new HashMap<>();
         this.scope = new Scope();
         this.stories = new ArrayList<>();
         this.risks = new ArrayList<>();
@@ -113,6 +199,7 @@ public class Epic {
         this.name = name;
         this.summary = "";
         this.tasks = new ArrayList<>();
+        this.taskIndex = new HashMap<>();
         this.scope = new Scope();
         this.stories = new ArrayList<>();
         this.risks = new ArrayList<>();
@@ -129,6 +216,7 @@ public class Epic {
         this.name = "";
         this.summary = "";
         this.tasks = new ArrayList<>();
+        this.taskIndex = new HashMap<>();
         this.scope = new Scope();
         this.stories = new ArrayList<>();
         this.risks = new ArrayList<>();
@@ -164,6 +252,8 @@ public class Epic {
         }
         
         stories.add(story.getId());
+        documentStories = null;
+        markChanged();
     }
     
     /**
@@ -173,6 +263,20 @@ public class Epic {
      */
     public void removeStory(Story story) {
         stories.remove(story.getId());
+        documentStories = null;
+        markChanged();
+    }
+    
+    /**
+     * Swaps the positions of two story links.
+     * 
+     * @param from index of first story link
+     * @param to index of second story link
+     */
+    public void swapStories(int from, int to) {
+        Collections.swap(stories, from, to);
+        documentStories = null;
+        markChanged();
     }
     
     /**
@@ -204,6 +308,8 @@ public class Epic {
         }
         
         risks.add(risk.getId());
+        documentRisks = null;
+        markChanged();
     }
     
     /**
@@ -213,6 +319,32 @@ public class Epic {
      */
     public void removeRisk(Risk risk) {
         risks.remove(risk.getId());
+        documentRisks = null;
+        markChanged();
+    }
+    
+    /**
+     * Swaps the positions of two risk links.
+     * 
+     * @param from index of first risk link
+     * @param to index of second risk link
+     */
+    public void swapRisks(int from, int to) {
+        Collections.swap(risks, from, to);
+        documentRisks = null;
+        markChanged();
+    }
+    
+    /**
+     * Swaps the positions of two tasks.
+     * 
+     * @param from index of first task
+     * @param to index of second task
+     */
+    public void swapTasks(int from, int to) {
+        Collections.swap(tasks, from, to);
+        reindexTasks(Math.min(from, to));
+        markChanged();
     }
     
     /**
@@ -224,13 +356,13 @@ public class Epic {
      * @return found task
      */
     public Task findTask(UUID id) {
-        for (Task t : tasks) {
-            if (t.getId() == id) {
-                return t;
-            }
+        int idx = indexOfTask(id);
+        
+        if (idx < 0) {
+            return null;
         }
         
-        return null;
+        return tasks.get(idx);
     }
     
     /**
@@ -259,13 +391,7 @@ public class Epic {
      * @return total size of all epics
      */
     public int getSize(Preferences preferences) {
-        int size = 0;
-        
-        for (Task t: tasks) {
-            size += preferences.estimateFor(t.getSize());
-        }
-        
-        return size;
+        return points(preferences, sizeCounts);
     }
     
     /**
@@ -321,7 +447,7 @@ public class Epic {
     public Task getPrevTask(Task t) {
         ArrayList<Task> tasks = getTasks();
         
-        int idx = tasks.indexOf(t);
+        int idx = indexOfTask(t);
         
         if (idx == 0) {
             return tasks.get(tasks.size() - 1);
@@ -341,7 +467,7 @@ public class Epic {
     public Task getNextTask(Task t) {
         ArrayList<Task> tasks = getTasks();
         
-        int idx = tasks.indexOf(t);
+        int idx = indexOfTask(t);
         
         if (idx + 1 > tasks.size() - 1) {
             return tasks.get(0);
@@ -371,11 +497,21 @@ public class Epic {
     /**
      * Returns document story models.
      * 
+     * Stories are returned in the order of the story links. The resolved
+     * stories are cached until the links change, or stories are added to
+     * or removed from the parent document.
+     * 
      * @return list of stories
      */
     @JsonIgnore
     public ArrayList<Story> getDocumentStories() {
-        return parent.findStories(stories);
+        if (documentStories == null 
+                || documentStoriesRevision != parent.getLinkRevision()) {
+            documentStories = parent.findStories(stories);
+            documentStoriesRevision = parent.getLinkRevision();
+        }
+        
+        return new ArrayList<>(documentStories);
     }
     
     /**
@@ -387,6 +523,20 @@ public class Epic {
         return risks;
     }
     
+    /**
+     * Getter for revision.
+     * 
+     * The revision moves on with every change made to the epic and its
+     * tasks, so work derived from an epic can be skipped when it has not
+     * changed.
+     * 
+     * @return epic revision
+     */
+    @JsonIgnore
+    public long getRevision() {
+        return revision;
+    }
+    
     /**
      * Getter for epic outlook.
      * 
@@ -407,11 +557,21 @@ public class Epic {
     /**
      * Return document risk models.
      * 
+     * Risks are returned in the order of the risk links. The resolved
+     * risks are cached until the links change, or risks are added to
+     * or removed from the parent document.
+     * 
      * @return list of risks
      */
     @JsonIgnore
     public ArrayList<Risk> getDocumentRisks() {
-        return parent.findRisks(risks);
+        if (documentRisks == null 
+                || documentRisksRevision != parent.getLinkRevision()) {
+            documentRisks = parent.findRisks(risks);
+            documentRisksRevision = parent.getLinkRevision();
+        }
+        
+        return new ArrayList<>(documentRisks);
     }
     
     /**
@@ -461,7 +621,7 @@ public class Epic {
      * @param value UUID to set as ID
      */
     public void setId(UUID value) {
-        id = value;
+        changeId(value);
     }
     
     /**
@@ -470,7 +630,7 @@ public class Epic {
      * @param value epic id
      */
     public void setId(String value) {
-        id = UUID.fromString(value);
+        changeId(UUID.fromString(value));
     }
     
     /**
@@ -480,6 +640,8 @@ public class Epic {
      */
     public void setParent(Document value) {
         parent = value;
+        documentStories = null;
+        documentRisks = null;
     }
     
     /**
@@ -488,7 +650,12 @@ public class Epic {
      * @param value new identifier
      */
     public void setIdentifier(int value) {
+        if (identifier == value) {
+            return;
+        }
+        
         identifier = value;
+        markChanged();
     }
     
     /**
@@ -497,7 +664,12 @@ public class Epic {
      * @param value value for project name
      */
     public void setName(String value) {
+        if (Objects.equals(name, value)) {
+            return;
+        }
+        
         name = value;
+        markChanged();
     }
     
     /**
@@ -506,7 +678,12 @@ public class Epic {
      * @param value value for epic summary.
      */
     public void setSummary(String value) {
+        if (Objects.equals(summary, value)) {
+            return;
+        }
+        
         summary = value;
+        markChanged();
     }
     
     /**
@@ -515,16 +692,94 @@ public class Epic {
      * @param value list of tasks
      */
     public void setTasks(ArrayList<Task> value) {
+        if (tasks != null) {
+            for (Task t : tasks) {
+                t.leave(this);
+            }
+        }
+        
         tasks = value;
+        taskIndex.clear();
+        
+        Arrays.fill(sizeCounts, 0);
+        Arrays.fill(completeSizeCounts, 0);
+        completeCount = 0;
+        inProgressCount = 0;
+        describedCount = 0;
+        
+        if (tasks != null) {
+            reindexTasks(0);
+            
+            for (Task t : tasks) {
+                t.setParent(this);
+                addToTotals(t);
+            }
+        }
+        
+        markChanged();
     }
     
     /**
      * Setter for epic scope.
      * 
+     * A different scope with the same id and items does not change the
+     * epic.
+     * Setting the current scope again records a change, as its items may
+     * have been edited in place.
+     * 
      * @param value to set as scope
      */
     public void setScope(Scope value) {
+        if (value != scope && sameScope(value)) {
+            return;
+        }
+        
         scope = value;
+        markChanged();
+    }
+    
+    /**
+     * Adds an item to the included scope.
+     * 
+     * An item that is already included is moved to the end.
+     * 
+     * @param item scope item to include
+     */
+    public void addIncludedScope(String item) {
+        addScope(scope.getIncluded(), item);
+    }
+    
+    /**
+     * Removes an item from the included scope.
+     * 
+     * @param item scope item to remove
+     */
+    public void removeIncludedScope(String item) {
+        if (scope.getIncluded().remove(item)) {
+            markChanged();
+        }
+    }
+    
+    /**
+     * Adds an item to the excluded scope.
+     * 
+     * An item that is already excluded is moved to the end.
+     * 
+     * @param item scope item to exclude
+     */
+    public void addExcludedScope(String item) {
+        addScope(scope.getExcluded(), item);
+    }
+    
+    /**
+     * Removes an item from the excluded scope.
+     * 
+     * @param item scope item to remove
+     */
+    public void removeExcludedScope(String item) {
+        if (scope.getExcluded().remove(item)) {
+            markChanged();
+        }
     }
     
     /**
@@ -534,6 +789,8 @@ public class Epic {
      */
     public void setStories(ArrayList<UUID> value) {
        stories = value;
+       documentStories = null;
+       markChanged();
     }
     
     /**
@@ -543,6 +800,8 @@ public class Epic {
      */
     public void setRisks(ArrayList<UUID> value) {
         risks = value;
+        documentRisks = null;
+        markChanged();
     }
     
     /**
@@ -552,6 +811,12 @@ public class Epic {
      */
     public void setOutlook(Outlook value) {
         outlook = value;
+        
+        if (value != null) {
+            value.setEpic(this);
+        }
+        
+        markChanged();
     }
     
     /**
@@ -561,6 +826,7 @@ public class Epic {
      */
     public void setStartSprint(int value) {
         startSprint = value;
+        markChanged();
     }
     
     /**
@@ -570,6 +836,7 @@ public class Epic {
      */
     public void setEndSprint(int value) {
         endSprint = value;
+        markChanged();
     }
     
     /**
@@ -603,16 +870,8 @@ public class Epic {
      */
     @JsonIgnore
     public TaskStatus calculateStatus() {
-        int completeCount = 0;
-        
-        for (Task t : tasks) {            
-            if (t.getStatus() == TaskStatus.IN_PROGRESS) {
-                return TaskStatus.IN_PROGRESS;
-            }
-            
-            if (t.getStatus() == TaskStatus.COMPLETE) {
-                completeCount += 1;
-            }
+        if (inProgressCount > 0) {
+            return TaskStatus.IN_PROGRESS;
         }
         
         if (tasks.size() > 1 && completeCount == tasks.size()) {
@@ -694,15 +953,7 @@ public class Epic {
      */
     @JsonIgnore
     public int calculateSizedCount() {
-        int count = 0;
-        
-        for (Task t : tasks) {
-            if (t.getSize() != TaskSize.ZERO) {
-                count += 1;
-            }
-        }
-        
-        return count;
+        return tasks.size() - sizeCounts[TaskSize.ZERO.ordinal()];
     }
     
     /**
@@ -723,15 +974,7 @@ public class Epic {
      */
     @JsonIgnore
     public int calculateDescribedCount() {
-        int count = 0;
-        
-        for (Task t : tasks) {
-            if (!"".equals(t.getDescription().trim())) {
-                count += 1;
-            }
-        }
-        
-        return count;
+        return describedCount;
     }
     
     /**
@@ -752,15 +995,7 @@ public class Epic {
      */
     @JsonIgnore
     public int calculateCompleteCount() {
-        int count = 0;
-        
-        for (Task t : tasks) {
-            if (t.getStatus() == TaskStatus.COMPLETE) {
-                count += 1;
-            }
-        }
-        
-        return count;
+        return completeCount;
     }
     
     /**
@@ -771,13 +1006,7 @@ public class Epic {
      * @return number of points
      */
     public int calculateTotalPoints(Preferences preferences) {
-        int count = 0;
-        
-        for (Task t : getTasks()) {
-            count += preferences.estimateFor(t.getSize());
-        }
-        
-        return count;
+        return points(preferences, sizeCounts);
     }
     
     /**
@@ -813,15 +1042,7 @@ public class Epic {
      */
     @JsonIgnore
     public int calculateCompletePointCount(Preferences preferences) {
-        int count = 0;
-        
-        for (Task t : tasks) {
-            if (t.getStatus() == TaskStatus.COMPLETE) {
-                count += preferences.estimateFor(t.getSize());
-            }
-        }
-        
-        return count;
+        return points(preferences, completeSizeCounts);
     }
     
     /**
@@ -857,7 +1078,7 @@ public class Epic {
      * @return result
      */
     public boolean hasTask(Task task) {
-        return tasks.contains(task);
+        return indexOfTask(task) >= 0;
     }
     
     /**
@@ -866,7 +1087,12 @@ public class Epic {
      * @param task task to add
      */
     public void addTask(Task task) {
+        task.setParent(this);
+        
         tasks.add(task);
+        taskIndex.putIfAbsent(task.getId(), tasks.size() - 1);
+        addToTotals(task);
+        markChanged();
     }
     
     /**
@@ -875,7 +1101,217 @@ public class Epic {
      * @param task task to remove
      */
     public void removeTask(Task task) {
-        tasks.remove(task);
+        int idx = indexOfTask(task);
+        
+        if (idx >= 0) {
+            tasks.remove(idx);
+            reindexTasks(idx);
+            removeFromTotals(task);
+            task.leave(this);
+        }
+        
+        markChanged();
+    }
+    
+    /**
+     * Returns the position of the first task with an id.
+     * 
+     * @param id task id
+     * 
+     * @return position of task, or -1 when there is no such task
+     */
+    private int indexOfTask(UUID id) {
+        Integer idx = taskIndex.get(id);
+        
+        if (idx == null) {
+            return -1;
+        }
+        
+        return idx;
+    }
+    
+    /**
+     * Returns the position of a task.
+     * 
+     * @param task task to look for
+     * 
+     * @return position of task, or -1 when it is not in the epic
+     */
+    private int indexOfTask(Task task) {
+        int idx = indexOfTask(task.getId());
+        
+        if (idx < 0 || tasks.get(idx) == task) {
+            return idx;
+        }
+        
+        // another task has the same id
+        return tasks.indexOf(task);
+    }
+    
+    /**
+     * Indexes the tasks from a position to the end of the epic.
+     * 
+     * Tasks before the position keep their index entries.
+     * 
+     * @param from position of first task to index
+     */
+    private void reindexTasks(int from) {
+        taskIndex.values().removeIf(idx -> idx >= from);
+        
+        for (int i = from; i < tasks.size(); i++) {
+            taskIndex.putIfAbsent(tasks.get(i).getId(), i);
+        }
+    }
+    
+    /**
+     * Moves a task to its new id in the task index.
+     * 
+     * This is called by the task when its id changes.
+     * 
+     * @param task task with its new id
+     */
+    void reindexTask(Task task) {
+        int idx = tasks.indexOf(task);
+        
+        if (idx >= 0) {
+            reindexTasks(idx);
+        }
+    }
+    
+    /**
+     * Adds a task to the task totals.
+     * 
+     * @param task task to add
+     */
+    void addToTotals(Task task) {
+        updateTotals(task, 1);
+    }
+    
+    /**
+     * Removes a task from the task totals.
+     * 
+     * @param task task to remove
+     */
+    void removeFromTotals(Task task) {
+        updateTotals(task, -1);
+    }
+    
+    /**
+     * Adjusts the task totals for a task.
+     * 
+     * A task without a size is not counted against any size, so it is
+     * worth no points but is not counted as unsized either.
+     * 
+     * @param task task to count
+     * @param delta 1 to add the task, -1 to remove it
+     */
+    private void updateTotals(Task task, int delta) {
+        TaskSize size = task.getSize();
+        
+        if (size != null) {
+            sizeCounts[size.ordinal()] += delta;
+        }
+        
+        if (task.getStatus() == TaskStatus.COMPLETE) {
+            if (size != null) {
+                completeSizeCounts[size.ordinal()] += delta;
+            }
+            
+            completeCount += delta;
+        }
+        
+        if (task.getStatus() == TaskStatus.IN_PROGRESS) {
+            inProgressCount += delta;
+        }
+        
+        if (task.isDescribed()) {
+            describedCount += delta;
+        }
+    }
+    
+    /**
+     * Totals the points for a count of tasks of each size.
+     * 
+     * @param preferences document preferences
+     * @param counts number of tasks of each size, by size ordinal
+     * 
+     * @return number of points
+     */
+    private static int points(Preferences preferences, int[] counts) {
+        int points = 0;
+        
+        for (TaskSize size : SIZES) {
+            int count = counts[size.ordinal()];
+            
+            if (count > 0) {
+                points += count * preferences.estimateFor(size);
+            }
+        }
+        
+        return points;
+    }
+    
+    /**
+     * Adds an item to the end of a scope list.
+     * 
+     * @param items scope list
+     * @param item scope item to add
+     */
+    private void addScope(ArrayList<String> items, String item) {
+        if (!items.isEmpty() && item.equals(items.get(items.size() - 1))) {
+            return;
+        }
+        
+        items.remove(item);
+        items.add(item);
+        markChanged();
+    }
+    
+    /**
+     * Returns true when a scope has the same items as the epic scope.
+     * 
+     * @param value scope to compare
+     * 
+     * @return result
+     */
+    private boolean sameScope(Scope value) {
+        if (scope == null || value == null) {
+            return scope == value;
+        }
+        
+        return Objects.equals(scope.getId(), value.getId())
+                && scope.getIncluded().equals(value.getIncluded())
+                && scope.getExcluded().equals(value.getExcluded());
+    }
+    
+    /**
+     * Changes the id, and moves this epic to its new id in the
+     * parent document.
+     * 
+     * @param value new id
+     */
+    private void changeId(UUID value) {
+        UUID previous = id;
+        id = value;
+        
+        if (parent != null && previous != null && !previous.equals(value)) {
+            parent.reindexEpic(previous, this);
+            markChanged();
+        }
+    }
+    
+    /**
+     * Records a change to this epic with the parent document.
+     * 
+     * The epic revision always moves on. Nothing is recorded with the
+     * document while the epic is not part of it.
+     */
+    void markChanged() {
+        revision += 1;
+        
+        if (parent != null && parent.findEpic(id) == this) {
+            parent.getChanges().changed(id, this);
+        }
     }
     
     /**
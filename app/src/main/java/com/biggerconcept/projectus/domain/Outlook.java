@@ -455,6 +455,7 @@ public class Outlook {
      */
     public void setBuffer(int value) {
         buffer = value;
+        markChanged();
     }
     
     /**
@@ -464,6 +465,7 @@ public class Outlook {
      */
     public void setSprintOne(Sprint value) {
         sprintOne = value;
+        markChanged();
     }
     
     /**
@@ -473,6 +475,7 @@ public class Outlook {
      */
     public void setSprintTwo(Sprint value) {
         sprintTwo = value;
+        markChanged();
     }
     
     /**
@@ -482,6 +485,7 @@ public class Outlook {
      */
     public void setSprintThree(Sprint value) {
         sprintThree = value;
+        markChanged();
     }
     
     /**
@@ -491,6 +495,7 @@ public class Outlook {
      */
     public void setSprintFour(Sprint value) {
         sprintFour = value;
+        markChanged();
     }
     
     /**
@@ -500,6 +505,7 @@ public class Outlook {
      */
     public void setPointsPerSprint(int value) {
         pointsPerSprint = value;
+        markChanged();
     }
     
     /**
@@ -525,6 +531,39 @@ public class Outlook {
         calculate(exclCompletedPoints);
     }
 
+    /**
+     * Returns a calculated copy of the outlook.
+     * 
+     * The copy has the buffer, reference sprints and points per sprint
+     * of this outlook, and is calculated for the given epic. This outlook
+     * is left as it is, so the copy can be calculated for a report while
+     * the outlook is shown or edited elsewhere.
+     * 
+     * @param prefs document preferences
+     * @param epic parent epic
+     * @param exclCompletedPoints whether to exclude completed points
+     * 
+     * @return calculated outlook
+     */
+    public Outlook calculated(
+            Preferences prefs,
+            Epic epic,
+            boolean exclCompletedPoints
+    ) {
+        Outlook copy = new Outlook(epic, prefs);
+        
+        copy.buffer = buffer;
+        copy.sprintOne = sprintOne;
+        copy.sprintTwo = sprintTwo;
+        copy.sprintThree = sprintThree;
+        copy.sprintFour = sprintFour;
+        copy.pointsPerSprint = pointsPerSprint;
+        
+        copy.calculate(exclCompletedPoints);
+        
+        return copy;
+    }
+    
     /**
      * Calculate callback.
      * 
@@ -548,8 +587,8 @@ public class Outlook {
     /**
      * Calculates total number of points in the project.
      * 
-     * This iterates over each task in the project and
-     * adds the task points based on document preferences.
+     * This uses the point totals of the epic based on document
+     * preferences.
      * 
      * If the exclCompletedPoints is passed, any task that is
      * completed will be skipped in the calculation of points.
@@ -557,14 +596,10 @@ public class Outlook {
      * @param exclCompletedPoints whether to exclude completed tasks
      */
      private void calculateTotalPoints(boolean exclCompletedPoints) {
-        estimatePoints = 0;
+        estimatePoints = parent.getSize(prefs);
         
-        for (Task t : parent.getTasks()) {
-            if (t.isComplete() == true && exclCompletedPoints == true) {
-                continue;
-            }
-            
-            estimatePoints += prefs.estimateFor(t.getSize());
+        if (exclCompletedPoints == true) {
+            estimatePoints -= parent.calculateCompletePointCount(prefs);
         }
     }
     
@@ -624,4 +659,13 @@ public class Outlook {
                 getSprintThree().getCompletedPoints() +
                 getSprintFour().getCompletedPoints();
     }
+    
+    /**
+     * Records a change to the outlook with the parent epic.
+     */
+    private void markChanged() {
+        if (parent != null) {
+            parent.markChanged();
+        }
+    }
 }
@@ -12,11 +12,14 @@ import static com.biggerconcept.projectus.domain.Size.TaskSize.M;
 import static com.biggerconcept.projectus.domain.Size.TaskSize.S;
 import static com.biggerconcept.projectus.domain.Size.TaskSize.XL;
 import static com.biggerconcept.projectus.domain.Size.TaskSize.XS;
+import com.biggerconcept.projectus.persistence.DocumentFormat;
 import com.biggerconcept.projectus.reports.Report;
 import com.biggerconcept.sdk.preferences.Config;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import java.io.IOException;
 import java.io.InputStream;
@@ -38,22 +41,17 @@ public class Preferences {
     * @return estimate as number
     */
     public int estimateFor(Size.TaskSize size) {
-        switch(size) {
-            case XS:
-                return extraSmallTaskSize;
-            case S:
-                return smallTaskSize;
-            case M:
-                return mediumTaskSize;
-            case L:
-                return largeTaskSize;
-            case XL:
-                return extraLargeTaskSize;
-            default:
-                return 0;
-        }
+        return estimates[size.ordinal()];
     }
     
+    /**
+     * Estimates by task size ordinal.
+     * 
+     * This is rebuilt whenever a size setting changes.
+     */
+    @JsonIgnore
+    private final int[] estimates = new int[Size.TaskSize.values().length];
+    
     /**
      * Set size for an extra small task.
      */
@@ -171,6 +169,20 @@ public class Preferences {
     @JsonInclude(Include.NON_NULL)
     private Integer estimateBuffer;
     
+    /**
+     * Encoding the document is written in.
+     */
+    @JsonProperty
+    @JsonInclude(Include.NON_NULL)
+    private DocumentFormat documentFormat;
+    
+    /**
+     * Whether the document file is compressed.
+     */
+    @JsonProperty
+    @JsonInclude(Include.NON_NULL)
+    private Boolean compressed;
+    
     /**
      * Builds a set of default preferences.
      * 
@@ -186,6 +198,7 @@ public class Preferences {
         p.mediumTaskSize = DEFAULT_M_TASK_SIZE;
         p.largeTaskSize = DEFAULT_L_TASK_SIZE;
         p.extraLargeTaskSize = DEFAULT_XL_TASK_SIZE;
+        p.updateEstimates();
         p.sprintLength = DEFAULT_SPRINT_LENGTH;
         p.refSprintOne = DEFAULT_REF_SPRINT_ONE;
         p.refSprintTwo = DEFAULT_REF_SPRINT_TWO;
@@ -200,12 +213,15 @@ public class Preferences {
      * Default constructor.
      */
     public Preferences() {
-        this.applicationSettings = App.config();
+        // application settings are looked up when first asked for
     }
     
     /**
      * Getter for application settings
      * 
+     * These are the shared application settings, loaded when first asked
+     * for.
+     * 
      * @return application settings
      */
     public Config getApplicationSettings() {
@@ -344,6 +360,39 @@ public class Preferences {
         return estimateBuffer;
     }
     
+    /**
+     * Getter for document format.
+     * 
+     * Documents without a format are written as JSON. The default is not
+     * serialized, so those documents are left as they are.
+     * 
+     * @return encoding the document is written in
+     */
+    @JsonIgnore
+    public DocumentFormat getDocumentFormat() {
+        if (documentFormat == null) {
+            return DocumentFormat.JSON;
+        }
+        
+        return documentFormat;
+    }
+    
+    /**
+     * Getter for compressed.
+     * 
+     * Documents are not compressed unless they ask to be.
+     * 
+     * @return whether the document file is compressed
+     */
+    @JsonIgnore
+    public boolean isCompressed() {
+        if (compressed == null) {
+            return false;
+        }
+        
+        return compressed;
+    }
+    
     /**
      * Getter for reports
      * 
@@ -449,8 +498,10 @@ public class Preferences {
      * 
      * @param value integer value to set as extra small size
      */
+    @JsonSetter("extraSmallTaskSize")
     public void setExtraSmallSize(int value) {
         extraSmallTaskSize = value;
+        updateEstimates();
     }
     
     /**
@@ -471,8 +522,10 @@ public class Preferences {
      * 
      * @param value integer value to set as small size
      */
+    @JsonSetter("smallTaskSize")
     public void setSmallSize(int value) {
         smallTaskSize = value;
+        updateEstimates();
     }
     
      /**
@@ -493,8 +546,10 @@ public class Preferences {
      * 
      * @param value integer value to set as medium size
      */
+    @JsonSetter("mediumTaskSize")
     public void setMediumSize(int value) {
         mediumTaskSize = value;
+        updateEstimates();
     }
     
     /**
@@ -515,8 +570,10 @@ public class Preferences {
      * 
      * @param value integer value to set as large size
      */
+    @JsonSetter("largeTaskSize")
     public void setLargeSize(int value) {
         largeTaskSize = value;
+        updateEstimates();
     }
     
     /**
@@ -537,8 +594,10 @@ public class Preferences {
      * 
      * @param value integer value to set as extra large size
      */
+    @JsonSetter("extraLargeTaskSize")
     public void setExtraLargeSize(int value) {
         extraLargeTaskSize = value;
+        updateEstimates();
     }
     
     /**
@@ -606,6 +665,24 @@ public class Preferences {
         estimateBuffer = value;
     }
     
+    /**
+     * Setter for document format.
+     * 
+     * @param value encoding to write the document in
+     */
+    public void setDocumentFormat(DocumentFormat value) {
+        documentFormat = value;
+    }
+    
+    /**
+     * Setter for compressed.
+     * 
+     * @param value whether to compress the document file
+     */
+    public void setCompressed(boolean value) {
+        compressed = value;
+    }
+    
     /**
      * Setter for reports
      * 
@@ -630,4 +707,16 @@ public class Preferences {
                 template
         );
     }
+    
+    /**
+     * Rebuilds the estimates from the size settings.
+     */
+    private void updateEstimates() {
+        estimates[Size.TaskSize.ZERO.ordinal()] = 0;
+        estimates[XS.ordinal()] = extraSmallTaskSize;
+        estimates[S.ordinal()] = smallTaskSize;
+        estimates[M.ordinal()] = mediumTaskSize;
+        estimates[L.ordinal()] = largeTaskSize;
+        estimates[XL.ordinal()] = extraLargeTaskSize;
+    }
 }
@@ -235,7 +235,7 @@ public class Risk {
    * @param value UUID to set as ID
    */
   public void setId(UUID value) {
-      id = value;
+      changeId(value);
   }
   
   /**
@@ -244,7 +244,7 @@ public class Risk {
    * @param value String to set as ID
    */
    public void setId(String value) {
-      id = UUID.fromString(value);
+      changeId(UUID.fromString(value));
    }
   
   /**
@@ -253,7 +253,12 @@ public class Risk {
    * @param value new identifier
    */
   public void setIdentifier(int value) {
+      if (identifier == value) {
+          return;
+      }
+      
       identifier = value;
+      markChanged();
   }
   
   /**
@@ -263,6 +268,7 @@ public class Risk {
    */
   public void setName(String value) {
       name = value;
+      markChanged();
   }
 
   /**
@@ -272,6 +278,7 @@ public class Risk {
    */
   public void setLikelihood(RiskLikelihood value) {
       likelihood = value;
+      markChanged();
   }
 
   /**
@@ -281,6 +288,7 @@ public class Risk {
    */
   public void setImpact(RiskImpact value) {
       impact = value;
+      markChanged();
   }
 
   /**
@@ -290,6 +298,7 @@ public class Risk {
    */
   public void setStatus(RiskStatus value) {
       status = value;
+      markChanged();
   }
   
   /**
@@ -299,6 +308,7 @@ public class Risk {
    */
   public void setDetail(String value) {
       detail = value;
+      markChanged();
   }
   
   /**
@@ -308,6 +318,7 @@ public class Risk {
    */
   public void setMitigationStrategy(String value) {
       mitigation = value;
+      markChanged();
   }
   
   /**
@@ -323,4 +334,29 @@ public class Risk {
         
         return false;
     }
+    
+  /**
+   * Changes the id, and moves this risk to its new id in the parent
+   * document.
+   * 
+   * @param value new id
+   */
+  private void changeId(UUID value) {
+      UUID previous = id;
+      id = value;
+      
+      if (parent != null && previous != null && !previous.equals(value)) {
+          parent.reindexRisk(previous, this);
+          markChanged();
+      }
+  }
+  
+  /**
+   * Records a change to this risk with the parent document.
+   */
+  private void markChanged() {
+      if (parent != null && parent.findRisk(id) == this) {
+          parent.getChanges().changed(id, this);
+      }
+  }
 }
@@ -6,6 +6,9 @@ import com.biggerconcept.projectus.helpers.Date;
 /**
  * Class for deriving overall project status.
  * 
+ * Every call works the figures out again from the document. Use
+ * Document.statusSnapshot() to read several figures at once.
+ * 
  * @author Andrew Bigger
  */
 public class Status {
@@ -206,14 +209,7 @@ public class Status {
      * @return points per sprint
      */
     public int pointsPerSprint() {
-        int completed = completedPoints();
-        long sprints = sprintsElapsed();
-        
-        if (completed == 0 || sprints == 0) {
-            return 0;
-        }
-        
-        return (int) (completed / sprints);
+        return pointsPerSprint(completedPoints(), sprintsElapsed());
     }
     
     /**
@@ -224,8 +220,7 @@ public class Status {
      * @return available points
      */
     public int availablePoints() {       
-        return (int) totalSprints() * 
-                doc.getPreferences().averageDeliveredPoints();
+        return availablePoints(doc.getPreferences(), totalSprints());
     }
     
     /**
@@ -271,14 +266,7 @@ public class Status {
      * @return ideal points per sprint
      */
     public int idealPointsPerSprint() {
-        int total = totalPoints();
-        long sprints = totalSprints();
-        
-        if (total == 0 || sprints == 0) {
-            return 0;
-        }
-        
-        return (int) (total / sprints);
+        return idealPointsPerSprint(totalPoints(), totalSprints());
     }
     
     /**
@@ -297,12 +285,75 @@ public class Status {
      * @return summary
      */
     public Tracking summary() {
-        if (completedPoints() == totalPoints()) {
-            return Tracking.COMPLETE;
+        int completed = completedPoints();
+        int total = totalPoints();
+        
+        return summary(
+                completed,
+                total,
+                pointsPerSprint(completed, sprintsElapsed()),
+                idealPointsPerSprint(total, totalSprints())
+        );
+    }
+    
+    /**
+     * Returns number of points completed per sprint.
+     * 
+     * @param completed number of completed points
+     * @param sprints number of sprints elapsed
+     * 
+     * @return points per sprint
+     */
+    static int pointsPerSprint(int completed, long sprints) {
+        if (completed == 0 || sprints == 0) {
+            return 0;
         }
         
-        int actual = pointsPerSprint();
-        int ideal = idealPointsPerSprint();
+        return (int) (completed / sprints);
+    }
+    
+    /**
+     * Returns number of available points for a number of sprints.
+     * 
+     * @param prefs document preferences
+     * @param sprints total number of sprints
+     * 
+     * @return available points
+     */
+    static int availablePoints(Preferences prefs, long sprints) {
+        return (int) sprints * prefs.averageDeliveredPoints();
+    }
+    
+    /**
+     * Returns ideal number of points per sprint.
+     * 
+     * @param total total number of points
+     * @param sprints total number of sprints
+     * 
+     * @return ideal points per sprint
+     */
+    static int idealPointsPerSprint(int total, long sprints) {
+        if (total == 0 || sprints == 0) {
+            return 0;
+        }
+        
+        return (int) (total / sprints);
+    }
+    
+    /**
+     * Returns status summary.
+     * 
+     * @param completed number of completed points
+     * @param total total number of points
+     * @param actual points completed per sprint
+     * @param ideal ideal points per sprint
+     * 
+     * @return summary
+     */
+    static Tracking summary(int completed, int total, int actual, int ideal) {
+        if (completed == total) {
+            return Tracking.COMPLETE;
+        }
         
         if (actual > ideal) {
             return Tracking.AHEAD;
@@ -0,0 +1,306 @@
+package com.biggerconcept.projectus.domain;
+
+import com.biggerconcept.projectus.domain.Status.Tracking;
+
+/**
+ * Overall project status at a point in time.
+ * 
+ * Every figure is worked out once, with a single pass over the epics,
+ * when the snapshot is taken. The snapshot does not change afterwards, so
+ * it can be read as often as needed.
+ * 
+ * Snapshots are taken by the document, which keeps the latest snapshot
+ * until the document changes or the day moves on.
+ * 
+ * @author Andrew Bigger
+ */
+public final class StatusSnapshot {
+    /**
+     * Document revision the snapshot was taken at.
+     */
+    private final long revision;
+    
+    /**
+     * Epoch day the snapshot was taken on.
+     */
+    private final long day;
+    
+    /**
+     * Whether start and end dates have been set.
+     */
+    private final boolean hasDates;
+    
+    /**
+     * Whether the project has started.
+     */
+    private final boolean hasStarted;
+    
+    /**
+     * Whether the project has concluded.
+     */
+    private final boolean hasConcluded;
+    
+    /**
+     * Total number of weeks.
+     */
+    private final long totalWeeks;
+    
+    /**
+     * Number of weeks elapsed.
+     */
+    private final long weeksElapsed;
+    
+    /**
+     * Total number of sprints.
+     */
+    private final long totalSprints;
+    
+    /**
+     * Number of sprints elapsed.
+     */
+    private final long sprintsElapsed;
+    
+    /**
+     * Total number of points.
+     */
+    private final int totalPoints;
+    
+    /**
+     * Number of completed points.
+     */
+    private final int completedPoints;
+    
+    /**
+     * Number of points completed per sprint.
+     */
+    private final int pointsPerSprint;
+    
+    /**
+     * Number of available points.
+     */
+    private final int availablePoints;
+    
+    /**
+     * Ideal number of points per sprint.
+     */
+    private final int idealPointsPerSprint;
+    
+    /**
+     * Status summary.
+     */
+    private final Tracking summary;
+    
+    /**
+     * Takes a snapshot of the status of a document.
+     * 
+     * @param doc document
+     * @param revision document revision
+     * @param day epoch day the snapshot is taken on
+     */
+    StatusSnapshot(Document doc, long revision, long day) {
+        Status status = new Status(doc);
+        Preferences prefs = doc.getPreferences();
+        
+        int total = 0;
+        int completed = 0;
+        
+        for (Epic e : doc.getEpics()) {
+            total += e.getSize(prefs);
+            completed += e.calculateCompletePointCount(prefs);
+        }
+        
+        this.revision = revision;
+        this.day = day;
+        this.hasDates = status.hasDates();
+        this.hasStarted = status.hasStarted();
+        this.hasConcluded = status.hasConcluded();
+        this.totalWeeks = status.totalWeeks();
+        this.weeksElapsed = status.weeksElapsed();
+        this.totalSprints = status.totalSprints();
+        this.sprintsElapsed = status.sprintsElapsed();
+        this.totalPoints = total;
+        this.completedPoints = completed;
+        this.pointsPerSprint = Status.pointsPerSprint(
+                completed,
+                sprintsElapsed
+        );
+        this.availablePoints = Status.availablePoints(prefs, totalSprints);
+        this.idealPointsPerSprint = Status.idealPointsPerSprint(
+                total,
+                totalSprints
+        );
+        this.summary = Status.summary(
+                completed,
+                total,
+                pointsPerSprint,
+                idealPointsPerSprint
+        );
+    }
+    
+    /**
+     * Returns true when the snapshot was taken at a document revision on
+     * a day.
+     * 
+     * @param revision document revision
+     * @param day epoch day
+     * 
+     * @return result
+     */
+    boolean isFor(long revision, long day) {
+        return this.revision == revision && this.day == day;
+    }
+    
+    /**
+     * Returns true if start and end dates have been specified in the
+     * document.
+     * 
+     * @return whether dates have been set.
+     */
+    public boolean hasDates() {
+        return hasDates;
+    }
+    
+    /**
+     * Returns true when the project had started.
+     * 
+     * @return whether the project has started
+     */
+    public boolean hasStarted() {
+        return hasStarted;
+    }
+    
+    /**
+     * Returns true if the project had concluded.
+     * 
+     * @return whether the project has concluded
+     */
+    public boolean hasConcluded() {
+        return hasConcluded;
+    }
+    
+    /**
+     * Returns total number of weeks between the start and end date.
+     * 
+     * @return total number of weeks
+     */
+    public long totalWeeks() {
+        return totalWeeks;
+    }
+    
+    /**
+     * Returns total number of weeks elapsed.
+     * 
+     * @return weeks elapsed
+     */
+    public long weeksElapsed() {
+        return weeksElapsed;
+    }
+    
+    /**
+     * Returns total number of sprints between start and end date.
+     * 
+     * @return total sprints
+     */
+    public long totalSprints() {
+        return totalSprints;
+    }
+    
+    /**
+     * Returns number of sprints elapsed.
+     * 
+     * @return sprints elapsed
+     */
+    public long sprintsElapsed() {
+        return sprintsElapsed;
+    }
+    
+    /**
+     * Returns total number of points in the project.
+     * 
+     * @return total points
+     */
+    public int totalPoints() {
+        return totalPoints;
+    }
+    
+    /**
+     * Returns number of completed points.
+     * 
+     * @return completed point total
+     */
+    public int completedPoints() {
+        return completedPoints;
+    }
+    
+    /**
+     * Returns number of points completed per sprint.
+     * 
+     * @return points per sprint
+     */
+    public int pointsPerSprint() {
+        return pointsPerSprint;
+    }
+    
+    /**
+     * Returns number of available points.
+     * 
+     * @return available points
+     */
+    public int availablePoints() {
+        return availablePoints;
+    }
+    
+    /**
+     * Returns total points as a proportion of available points.
+     * 
+     * @return available points progress
+     */
+    public double availablePointsProgress() {
+        return (double) totalPoints / availablePoints;
+    }
+    
+    /**
+     * Returns true if project is over committed.
+     * 
+     * @return over committed
+     */
+    public boolean isOverCommitted() {
+        return totalPoints > availablePoints;
+    }
+    
+    /**
+     * Returns elapsed sprints as a proportion of total sprints.
+     * 
+     * @return elapsed sprints progress
+     */
+    public double sprintProgress() {
+        return (double) sprintsElapsed / totalSprints;
+    }
+    
+    /**
+     * Returns completed points as a proportion of total points.
+     * 
+     * @return point progress
+     */
+    public double pointProgress() {
+        return (double) completedPoints / totalPoints;
+    }
+    
+    /**
+     * Returns ideal number of points per sprint.
+     * 
+     * @return ideal points per sprint
+     */
+    public int idealPointsPerSprint() {
+        return idealPointsPerSprint;
+    }
+    
+    /**
+     * Returns status summary.
+     * 
+     * @return summary
+     */
+    public Tracking summary() {
+        return summary;
+    }
+}
@@ -146,7 +146,7 @@ public class Story {
      * @param value UUID to set as ID
      */
     public void setId(UUID value) {
-        id = value;
+        changeId(value);
     }
     
     /**
@@ -155,7 +155,7 @@ public class Story {
      * @param value String to set as ID
      */
     public void setId(String value) {
-        id = UUID.fromString(value);
+        changeId(UUID.fromString(value));
     }
     
     /**
@@ -164,7 +164,12 @@ public class Story {
      * @param value identifier
      */
     public void setIdentifier(int value) {
+        if (identifier == value) {
+            return;
+        }
+        
         identifier = value;
+        markChanged();
     }
     
     /**
@@ -174,6 +179,7 @@ public class Story {
      */
     public void setActor(Actor value) {
         actor = value;
+        markChanged();
     }
     
     /**
@@ -183,6 +189,7 @@ public class Story {
      */
     public void setIntention(String value) {
         intention = value;
+        markChanged();
     }
     
     /**
@@ -192,6 +199,7 @@ public class Story {
      */
     public void setExpectation(String value) {
         expectation = value;
+        markChanged();
     }
     
     /**
@@ -208,4 +216,29 @@ public class Story {
         
         return false;
     }
+    
+    /**
+     * Changes the id, and moves this story to its new id in the
+     * parent document.
+     * 
+     * @param value new id
+     */
+    private void changeId(UUID value) {
+        UUID previous = id;
+        id = value;
+        
+        if (parent != null && previous != null && !previous.equals(value)) {
+            parent.reindexStory(previous, this);
+            markChanged();
+        }
+    }
+    
+    /**
+     * Records a change to this story with the parent document.
+     */
+    private void markChanged() {
+        if (parent != null && parent.findStory(id) == this) {
+            parent.getChanges().changed(id, this);
+        }
+    }
 }
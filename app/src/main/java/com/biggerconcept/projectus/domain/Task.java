@@ -4,11 +4,19 @@ import com.biggerconcept.projectus.domain.Size.TaskSize;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
  * Represents a task in a project.
  * 
+ * The description and acceptance criteria are only shown when a task is
+ * opened or reported on, so they are held as UTF-8 and decoded when they
+ * are asked for.
+ * 
  * @author Andrew Bigger
  */
 public class Task {
@@ -40,16 +48,22 @@ public class Task {
     private String name;
     
     /**
-     * Task description.
+     * Task description as UTF-8.
      */
+    @JsonProperty
     @JsonInclude(Include.NON_NULL)
-    private String description;
+    @JsonSerialize(using = Utf8Text.Serializer.class)
+    @JsonDeserialize(using = Utf8Text.Deserializer.class)
+    private byte[] description;
     
     /**
-     * Task acceptance criteria.
+     * Task acceptance criteria as UTF-8.
      */
+    @JsonProperty
     @JsonInclude(Include.NON_NULL)
-    private String acceptanceCriteria;
+    @JsonSerialize(using = Utf8Text.Serializer.class)
+    @JsonDeserialize(using = Utf8Text.Deserializer.class)
+    private byte[] acceptanceCriteria;
     
     /**
      * Task status.
@@ -62,6 +76,12 @@ public class Task {
      */
     private TaskSize size;
     
+    /**
+     * Parent epic.
+     */
+    @JsonIgnore
+    private Epic parent;
+    
     /**
      * Constructor fo task that accepts all task parameters.
      * 
@@ -81,8 +101,8 @@ public class Task {
         this.id = UUID.randomUUID();
         this.identifier = -1;
         this.name = name;
-        this.description = description;
-        this.acceptanceCriteria = acceptanceCriteria;
+        this.description = Utf8Text.encode(description);
+        this.acceptanceCriteria = Utf8Text.encode(acceptanceCriteria);
         this.size = size;
         this.status = status;
     }
@@ -98,8 +118,8 @@ public class Task {
         this.id = UUID.randomUUID();
         this.identifier = -1;
         this.name = name;
-        this.description = "";
-        this.acceptanceCriteria = "";
+        this.description = Utf8Text.EMPTY;
+        this.acceptanceCriteria = Utf8Text.EMPTY;
         this.size = TaskSize.ZERO;
         this.status = TaskStatus.NOT_STARTED;
     }
@@ -113,8 +133,8 @@ public class Task {
         this.id = UUID.randomUUID();
         this.identifier = -1;
         this.name = "";
-        this.description = "";
-        this.acceptanceCriteria = "";
+        this.description = Utf8Text.EMPTY;
+        this.acceptanceCriteria = Utf8Text.EMPTY;
         this.size = TaskSize.ZERO;
         this.status = TaskStatus.NOT_STARTED;
     }
@@ -151,8 +171,9 @@ public class Task {
      * 
      * @return task description
      */
+    @JsonIgnore
     public String getDescription() {
-        return description;
+        return Utf8Text.decode(description);
     }
     
     /**
@@ -160,8 +181,9 @@ public class Task {
      * 
      * @return acceptance criteria for task
      */
+    @JsonIgnore
     public String getAcceptanceCriteria() {
-        return acceptanceCriteria;
+        return Utf8Text.decode(acceptanceCriteria);
     }
     
     /**
@@ -188,7 +210,14 @@ public class Task {
      * @param value ID as UUID
      */
     public void setId(UUID value) {
+        UUID previous = id;
         id = value;
+        
+        if (parent != null && !Objects.equals(previous, value)) {
+            parent.reindexTask(this);
+        }
+        
+        markChanged();
     }
     
     /**
@@ -197,7 +226,7 @@ public class Task {
      * @param value ID as String
      */
     public void setId(String value) {
-        id = UUID.fromString(value);
+        setId(UUID.fromString(value));
     }
 
     /**
@@ -206,7 +235,32 @@ public class Task {
      * @param value identifier to set
      */
     public void setIdentifier(int value) {
+        if (identifier == value) {
+            return;
+        }
+        
         identifier = value;
+        markChanged();
+    }
+    
+    /**
+     * Setter for parent epic.
+     * 
+     * @param value epic the task belongs to
+     */
+    public void setParent(Epic value) {
+        parent = value;
+    }
+    
+    /**
+     * Clears the parent epic when the task is taken out of it.
+     * 
+     * @param epic epic the task was taken out of
+     */
+    void leave(Epic epic) {
+        if (parent == epic) {
+            parent = null;
+        }
     }
     
     /**
@@ -216,6 +270,7 @@ public class Task {
      */
     public void setName(String value) {
         name = value;
+        markChanged();
     }
     
     /**
@@ -223,8 +278,19 @@ public class Task {
      * 
      * @param value task description value
      */
+    @JsonIgnore
     public void setDescription(String value) {
-        description = value;
+        if (parent != null) {
+            parent.removeFromTotals(this);
+        }
+        
+        description = Utf8Text.encode(value);
+        
+        if (parent != null) {
+            parent.addToTotals(this);
+        }
+        
+        markChanged();
     }
     
     /**
@@ -232,8 +298,10 @@ public class Task {
      * 
      * @param value acceptance criteria value
      */
+    @JsonIgnore
     public void setAcceptanceCriteria(String value) {
-        acceptanceCriteria = value;
+        acceptanceCriteria = Utf8Text.encode(value);
+        markChanged();
     }
     
     /**
@@ -242,7 +310,17 @@ public class Task {
      * @param value task size value
      */
     public void setSize(TaskSize value) {
+        if (parent != null) {
+            parent.removeFromTotals(this);
+        }
+        
         size = value;
+        
+        if (parent != null) {
+            parent.addToTotals(this);
+        }
+        
+        markChanged();
     }
     
     /**
@@ -251,7 +329,17 @@ public class Task {
      * @param value task status value
      */
     public void setStatus(TaskStatus value) {
+        if (parent != null) {
+            parent.removeFromTotals(this);
+        }
+        
         status = value;
+        
+        if (parent != null) {
+            parent.addToTotals(this);
+        }
+        
+        markChanged();
     }
     
     /**
@@ -263,4 +351,26 @@ public class Task {
     public boolean isComplete() {
         return status == TaskStatus.COMPLETE;
     }
+    
+    /**
+     * Returns true if task has a description.
+     * 
+     * Blank descriptions do not count. This works on the stored text,
+     * without decoding it.
+     * 
+     * @return task described
+     */
+    @JsonIgnore
+    public boolean isDescribed() {
+        return !Utf8Text.isBlank(description);
+    }
+    
+    /**
+     * Records a change to this task with the parent epic.
+     */
+    private void markChanged() {
+        if (parent != null) {
+            parent.markChanged();
+        }
+    }
 }
@@ -0,0 +1,138 @@
+package com.biggerconcept.projectus.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Text held as UTF-8 bytes.
+ * 
+ * On Java 8 a String holds two bytes per character, so text that is
+ * rarely read is about half the size held as UTF-8. The text is written
+ * to and read from documents as a plain string, without a String being
+ * made for it on the way.
+ * 
+ * @author Andrew Bigger
+ */
+public class Utf8Text {
+    /**
+     * Encoded empty text.
+     */
+    public static final byte[] EMPTY = new byte[0];
+    
+    /**
+     * Encodes text.
+     * 
+     * @param value text to encode
+     * 
+     * @return encoded text, or null for null
+     */
+    public static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        
+        if (value.isEmpty()) {
+            return EMPTY;
+        }
+        
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Decodes text.
+     * 
+     * @param value encoded text
+     * 
+     * @return text, or null for null
+     */
+    public static String decode(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        
+        return new String(value, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Returns true if encoded text is null or only white space.
+     * 
+     * Every byte of a multi-byte character is above the space character,
+     * so this works on the bytes without decoding them.
+     * 
+     * @param value encoded text
+     * 
+     * @return result
+     */
+    public static boolean isBlank(byte[] value) {
+        if (value == null) {
+            return true;
+        }
+        
+        for (byte b : value) {
+            if ((b & 0xff) > ' ') {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Writes encoded text as a string.
+     * 
+     * Only generators that write bytes take the text as it is. Others,
+     * such as the token buffers used to snapshot documents, are given the
+     * decoded text.
+     */
+    public static class Serializer extends JsonSerializer<byte[]> {
+        @Override
+        public void serialize(
+                byte[] value,
+                JsonGenerator gen,
+                SerializerProvider serializers
+        ) throws IOException {
+            if (gen.getOutputTarget() instanceof OutputStream) {
+                gen.writeUTF8String(value, 0, value.length);
+            } else {
+                gen.writeString(decode(value));
+            }
+        }
+    }
+    
+    /**
+     * Reads a string as encoded text.
+     */
+    public static class Deserializer extends JsonDeserializer<byte[]> {
+        @Override
+        public byte[] deserialize(JsonParser p, DeserializationContext ctxt)
+                throws IOException {
+            int length = p.getTextLength();
+            
+            if (length == 0) {
+                return EMPTY;
+            }
+            
+            ByteBuffer encoded = StandardCharsets.UTF_8.encode(
+                    CharBuffer.wrap(
+                            p.getTextCharacters(),
+                            p.getTextOffset(),
+                            length
+                    )
+            );
+            
+            byte[] value = new byte[encoded.remaining()];
+            encoded.get(value);
+            
+            return value;
+        }
+    }
+}
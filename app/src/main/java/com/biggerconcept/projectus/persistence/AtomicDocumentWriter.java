@@ -0,0 +1,265 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Crash safe writes of documents to disk.
+ * 
+ * Documents are never written directly over their target file. They are
+ * written to a temporary file in the same directory, which is synced to
+ * disk and then renamed over the target, so a crash part way through a
+ * save leaves the previous version of the file intact.
+ * 
+ * Journals are rewritten the same way when their records are discarded.
+ * 
+ * @author Andrew Bigger
+ */
+public class AtomicDocumentWriter {
+    /**
+     * Suffix for temporary files.
+     */
+    private static final String TEMP_SUFFIX = ".saving";
+    
+    /**
+     * Takes an in memory snapshot of the document.
+     * 
+     * The snapshot is a buffer of JSON tokens, so it is detached from the
+     * document and can be written out later, on any thread, while the
+     * document continues to be edited.
+     * 
+     * @param doc document to snapshot
+     * 
+     * @return snapshot of document
+     * 
+     * @throws IOException when unable to snapshot the document
+     */
+    public static TokenBuffer snapshot(Document doc) throws IOException {
+        TokenBuffer buffer = new TokenBuffer(DocumentMapper.mapper(), false);
+        
+        DocumentMapper.writer().writeValue(buffer, doc);
+        
+        return buffer;
+    }
+    
+    /**
+     * Content to write to a file.
+     */
+    private interface Content {
+        /**
+         * Writes content to stream.
+         * 
+         * @param out stream to write to
+         * 
+         * @throws IOException when unable to write
+         */
+        public void writeTo(OutputStream out) throws IOException;
+    }
+    
+    /**
+     * Writes document to file.
+     * 
+     * The document is written in the encoding chosen in its preferences,
+     * and is compressed when its preferences ask for it.
+     * 
+     * Journal records for the file that were written before the document
+     * are discarded, as the document includes their changes.
+     * 
+     * @param file file to write
+     * @param doc document to write
+     * 
+     * @throws IOException when unable to write the document
+     */
+    public static void write(File file, Document doc) throws IOException {
+        long journalLength = DocumentJournal.length(file);
+        
+        write(
+                file,
+                snapshot(doc),
+                doc.getPreferences().getDocumentFormat(),
+                doc.getPreferences().isCompressed()
+        );
+        
+        DocumentJournal.discard(file, journalLength);
+    }
+    
+    /**
+     * Writes a document snapshot to file.
+     * 
+     * @param file file to write
+     * @param snapshot document snapshot
+     * @param format encoding to write
+     * @param compressed whether to gzip the document
+     * 
+     * @throws IOException when unable to write the document
+     */
+    public static void write(
+            File file,
+            TokenBuffer snapshot,
+            DocumentFormat format,
+            boolean compressed
+    ) throws IOException {
+        replace(file, (out) -> writeTo(out, snapshot, format, compressed));
+    }
+    
+    /**
+     * Writes a document snapshot to a file stream.
+     * 
+     * The file stream is left open.
+     * 
+     * @param out stream of file to write
+     * @param snapshot document snapshot
+     * @param format encoding to write
+     * @param compressed whether to gzip the document
+     * 
+     * @throws IOException when unable to write the document
+     */
+    static void writeTo(
+            OutputStream out,
+            TokenBuffer snapshot,
+            DocumentFormat format,
+            boolean compressed
+    ) throws IOException {
+        try (OutputStream doc = DocumentStreams.create(out, compressed)) {
+            JsonGenerator gen = DocumentMapper
+                    .mapper(format)
+                    .getFactory()
+                    .createGenerator(doc);
+            
+            snapshot.serialize(gen);
+            gen.close();
+        }
+    }
+    
+    /**
+     * Writes bytes to file.
+     * 
+     * @param file file to write
+     * @param content bytes to write
+     * 
+     * @throws IOException when unable to write the file
+     */
+    public static void write(File file, byte[] content) throws IOException {
+        replace(file, (out) -> out.write(content));
+    }
+    
+    /**
+     * Replaces file with the given content.
+     * 
+     * Every write has a temporary file of its own, so writers of the same
+     * file, such as a save and a journal rewrite, can not rename each
+     * other's half written file into place.
+     * 
+     * @param file file to replace
+     * @param content content for file
+     * 
+     * @throws IOException when unable to write the file
+     */
+    private static void replace(File file, Content content)
+            throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path dir = target.getParent();
+        Path temp = Files.createTempFile(
+                dir,
+                "." + target.getFileName().toString(),
+                TEMP_SUFFIX
+        );
+        
+        try {
+            copyPermissions(target, temp);
+            
+            try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+                content.writeTo(out);
+                out.getFD().sync();
+            }
+            
+            move(temp, target);
+            syncDirectory(dir);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * Gives the temporary file the permissions of the target.
+     * 
+     * Temporary files are only readable by their owner, so without this
+     * every save would take access to the document away from others.
+     * Nothing is copied when the target does not exist yet, or the file
+     * system has no POSIX permissions.
+     * 
+     * @param target target file
+     * @param temp temporary file
+     * 
+     * @throws IOException when unable to copy the permissions
+     */
+    private static void copyPermissions(Path target, Path temp)
+            throws IOException {
+        if (!Files.exists(target)) {
+            return;
+        }
+        
+        try {
+            Files.setPosixFilePermissions(
+                    temp,
+                    Files.getPosixFilePermissions(target)
+            );
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system
+        }
+    }
+    
+    /**
+     * Renames the temporary file over the target.
+     * 
+     * Falls back to a plain replace on file systems that can not rename
+     * atomically.
+     * 
+     * @param temp temporary file
+     * @param target target file
+     * 
+     * @throws IOException when unable to move the file
+     */
+    static void move(Path temp, Path target) throws IOException {
+        try {
+            Files.move(
+                    temp,
+                    target,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING
+            );
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * Syncs directory so that the rename is durable.
+     * 
+     * Not all platforms allow directories to be opened, in which case this
+     * does nothing.
+     * 
+     * @param dir directory to sync
+     */
+    static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(
+                dir,
+                StandardOpenOption.READ
+        )) {
+            channel.force(true);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Document;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of documents that have been loaded from disk.
+ * 
+ * Documents other than the open document, such as the target of an epic
+ * move, are loaded through this cache so that using the same file again
+ * does not parse it again.
+ * 
+ * Each entry is stamped with the modification time and size of the file
+ * and its journal. A document is loaded again when either has changed
+ * since it was cached. The least recently used document is dropped when
+ * the cache is full.
+ * 
+ * Cached documents are shared, so changes made to them are seen by the
+ * next user of the cache. A changed document must be saved, or dropped
+ * from the cache.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentCache {
+    /**
+     * Cached document with the file state it was loaded from.
+     */
+    private static class Entry {
+        /**
+         * Cached document.
+         */
+        private final Document document;
+        
+        /**
+         * File state the document matches.
+         */
+        private DocumentStamp stamp;
+        
+        /**
+         * Constructor for cache entry.
+         * 
+         * @param document cached document
+         * @param stamp file state the document matches
+         */
+        private Entry(Document document, DocumentStamp stamp) {
+            this.document = document;
+            this.stamp = stamp;
+        }
+    }
+    
+    /**
+     * Cached documents by file, least recently used first.
+     */
+    private final LinkedHashMap<File, Entry> entries;
+    
+    /**
+     * Constructor for document cache.
+     * 
+     * @param capacity number of documents to keep
+     */
+    public DocumentCache(int capacity) {
+        this.entries = new LinkedHashMap<File, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<File, Entry> e) {
+                return size() > capacity;
+            }
+        };
+    }
+    
+    /**
+     * Returns the document in a file.
+     * 
+     * The cached document is returned when the file has not changed since
+     * it was loaded, otherwise the file is loaded and cached.
+     * 
+     * @param file document file
+     * 
+     * @return document
+     * 
+     * @throws IOException when unable to load the document
+     */
+    public synchronized Document get(File file) throws IOException {
+        File key = file.getAbsoluteFile();
+        DocumentStamp stamp = new DocumentStamp(key);
+        Entry entry = entries.get(key);
+        
+        if (entry != null && entry.stamp.matches(stamp)) {
+            return entry.document;
+        }
+        
+        Document doc = Document.load(key);
+        entries.put(key, new Entry(doc, stamp));
+        
+        return doc;
+    }
+    
+    /**
+     * Records that a document has been written to a file.
+     * 
+     * When it is the cached document, the entry is stamped with the new
+     * file state so that it stays cached. Otherwise the cached document no
+     * longer matches the file, and is dropped.
+     * 
+     * @param file file written
+     * @param doc document written
+     */
+    public synchronized void written(File file, Document doc) {
+        File key = file.getAbsoluteFile();
+        Entry entry = entries.get(key);
+        
+        if (entry == null) {
+            return;
+        }
+        
+        if (entry.document == doc) {
+            entry.stamp = new DocumentStamp(key);
+        } else {
+            entries.remove(key);
+        }
+    }
+    
+    /**
+     * Drops the cached document for a file.
+     * 
+     * @param file document file
+     */
+    public synchronized void invalidate(File file) {
+        entries.remove(file.getAbsoluteFile());
+    }
+    
+    /**
+     * Drops every cached document.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
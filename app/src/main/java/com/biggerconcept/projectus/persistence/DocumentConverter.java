@@ -0,0 +1,70 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.domain.Preferences;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Converts documents between encodings.
+ * 
+ * The encoding is recorded in the preferences of the converted document,
+ * so it will continue to be saved in that encoding.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentConverter {
+    /**
+     * Converts a document to the given encoding.
+     * 
+     * The source may be in any encoding, and may be the same file as the
+     * target.
+     * 
+     * @param source document to convert
+     * @param target file to write converted document to
+     * @param format encoding to convert to
+     * 
+     * @throws IOException when unable to read or write the document
+     */
+    public static void convert(File source, File target, DocumentFormat format)
+            throws IOException {
+        Document doc = Document.load(source);
+        
+        Preferences prefs = doc.getPreferences();
+        prefs.setDocumentFormat(format);
+        
+        doc.setPreferences(prefs);
+        doc.setFile(target);
+        doc.save();
+    }
+    
+    /**
+     * Converts a document from the command line.
+     * 
+     * Usage: DocumentConverter source target json|smile
+     * 
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println(
+                    "Usage: DocumentConverter <source> <target> <json|smile>"
+            );
+            System.exit(2);
+        }
+        
+        try {
+            convert(
+                    new File(args[0]),
+                    new File(args[1]),
+                    DocumentFormat.valueOf(args[2].toUpperCase())
+            );
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown format: " + args[2]);
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Unable to convert document: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.biggerconcept.projectus.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Encodings a document can be written in.
+ * 
+ * JSON is the default. SMILE is Jackson's binary encoding of the same
+ * structure, which is smaller and faster to parse than JSON text.
+ * 
+ * @author Andrew Bigger
+ */
+public enum DocumentFormat {
+    JSON,
+    SMILE;
+    
+    /**
+     * Header that starts every SMILE document.
+     */
+    private static final byte[] SMILE_HEADER = { ':', ')', '\n' };
+    
+    /**
+     * Detects the format of the document in a file.
+     * 
+     * Files that do not start with a known binary header are treated as
+     * JSON. Compressed files are detected by their content.
+     * 
+     * @param file file to inspect
+     * 
+     * @return format of file
+     * 
+     * @throws IOException when unable to read the file
+     */
+    public static DocumentFormat detect(File file) throws IOException {
+        try (InputStream in = DocumentStreams.open(file)) {
+            return detect(in);
+        }
+    }
+    
+    /**
+     * Detects the format of the document in a stream.
+     * 
+     * The stream must support mark and reset, and its position is not
+     * changed.
+     * 
+     * @param in stream to inspect
+     * 
+     * @return format of document
+     * 
+     * @throws IOException when unable to read the stream
+     */
+    public static DocumentFormat detect(InputStream in) throws IOException {
+        byte[] header = new byte[SMILE_HEADER.length];
+        int read = 0;
+        
+        in.mark(header.length);
+        
+        while (read < header.length) {
+            int count = in.read(header, read, header.length - read);
+            
+            if (count < 0) {
+                break;
+            }
+            
+            read += count;
+        }
+        
+        in.reset();
+        
+        return detect(header, read);
+    }
+    
+    /**
+     * Detects the format of a document from its first bytes.
+     * 
+     * @param header first bytes of the document
+     * @param length number of bytes in the header
+     * 
+     * @return format of document
+     */
+    public static DocumentFormat detect(byte[] header, int length) {
+        if (length < SMILE_HEADER.length) {
+            return JSON;
+        }
+        
+        for (int i = 0; i < SMILE_HEADER.length; i++) {
+            if (header[i] != SMILE_HEADER[i]) {
+                return JSON;
+            }
+        }
+        
+        return SMILE;
+    }
+}
@@ -0,0 +1,491 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Actor;
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.domain.DocumentChanges;
+import com.biggerconcept.projectus.domain.Epic;
+import com.biggerconcept.projectus.domain.Preferences;
+import com.biggerconcept.projectus.domain.Risk;
+import com.biggerconcept.projectus.domain.Story;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Append only journal of document changes.
+ * 
+ * The journal is a sidecar file next to the document, holding one JSON
+ * record per line. Each record describes an epic, actor, story or risk
+ * that was changed or removed, a change to the document title, dates or
+ * preferences, or a new order for the epics. Appending the changes made
+ * since the last save costs as much as the changed items, not the whole
+ * document.
+ * 
+ * Records are whole items, so replaying a record twice has the same
+ * result as replaying it once. A document is loaded by reading the file
+ * and replaying its journal over the top. Compaction writes the whole
+ * document and then discards the records it includes.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentJournal {
+    /**
+     * Suffix of journal files.
+     */
+    public static final String JOURNAL_SUFFIX = ".journal";
+    
+    /**
+     * Smallest journal that will be compacted.
+     */
+    private static final long MIN_COMPACT_LENGTH = 256 * 1024;
+    
+    /**
+     * Record operation for an added or changed item.
+     */
+    private static final String OP_PUT = "put";
+    
+    /**
+     * Record operation for a removed item.
+     */
+    private static final String OP_REMOVE = "remove";
+    
+    /**
+     * Record operation for the document title, dates and preferences.
+     */
+    private static final String OP_HEADER = "header";
+    
+    /**
+     * Record operation for the order of epics.
+     */
+    private static final String OP_ORDER = "order";
+    
+    /**
+     * Returns the journal file for a document file.
+     * 
+     * @param file document file
+     * 
+     * @return journal file
+     */
+    public static File journalFor(File file) {
+        return new File(
+                file.getAbsoluteFile().getParentFile(),
+                file.getName() + JOURNAL_SUFFIX
+        );
+    }
+    
+    /**
+     * Returns the length of the journal for a document file.
+     * 
+     * @param file document file
+     * 
+     * @return journal length in bytes, 0 when there is no journal
+     */
+    public static synchronized long length(File file) {
+        return journalFor(file).length();
+    }
+    
+    /**
+     * Returns true when the journal for a document file should be
+     * compacted.
+     * 
+     * This is when the journal is large, and is at least half the size of
+     * the document file.
+     * 
+     * @param file document file
+     * 
+     * @return result
+     */
+    public static boolean needsCompaction(File file) {
+        long journalLength = length(file);
+        
+        return journalLength >= MIN_COMPACT_LENGTH
+                && journalLength * 2 >= file.length();
+    }
+    
+    /**
+     * Appends the document changes to its journal.
+     * 
+     * The records are synced to disk before this returns, and the
+     * document changes are then cleared.
+     * 
+     * @param doc document to journal
+     * 
+     * @throws IOException when unable to write the journal
+     */
+    public static synchronized void append(Document doc) throws IOException {
+        DocumentChanges changes = doc.getChanges();
+        
+        if (changes.isEmpty()) {
+            return;
+        }
+        
+        if (changes.isEverythingChanged()) {
+            throw new IOException("Document must be written in full");
+        }
+        
+        ObjectMapper mapper = DocumentMapper.mapper();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        
+        for (Map.Entry<UUID, Object> removed
+                : changes.getRemovedById().entrySet()) {
+            ObjectNode record = mapper.createObjectNode();
+            record.put("op", OP_REMOVE);
+            record.put("type", typeOf(removed.getValue()));
+            record.put("id", removed.getKey().toString());
+            
+            writeRecord(records, record);
+        }
+        
+        for (Object item : changes.getChanged()) {
+            ObjectNode record = mapper.createObjectNode();
+            record.put("op", OP_PUT);
+            record.put("type", typeOf(item));
+            record.set("value", mapper.valueToTree(item));
+            
+            writeRecord(records, record);
+        }
+        
+        if (changes.isEpicOrderChanged()) {
+            ObjectNode record = mapper.createObjectNode();
+            record.put("op", OP_ORDER);
+            ArrayNode ids = record.putArray("ids");
+            
+            for (Epic e : doc.getEpics()) {
+                ids.add(e.getId().toString());
+            }
+            
+            writeRecord(records, record);
+        }
+        
+        if (changes.isHeaderChanged()) {
+            ObjectNode value = mapper.createObjectNode();
+            value.put("title", doc.getTitle());
+            value.put("start", doc.getStart());
+            value.put("end", doc.getEnd());
+            value.set("preferences", mapper.valueToTree(doc.getPreferences()));
+            
+            ObjectNode record = mapper.createObjectNode();
+            record.put("op", OP_HEADER);
+            record.set("value", value);
+            
+            writeRecord(records, record);
+        }
+        
+        File journal = journalFor(doc.getFile());
+        
+        try (FileOutputStream out = new FileOutputStream(journal, true)) {
+            records.writeTo(out);
+            out.getFD().sync();
+        }
+        
+        changes.clear();
+    }
+    
+    /**
+     * Replays the journal for a document over the document.
+     * 
+     * A record cut short by a crash while appending is dropped, and the
+     * journal is truncated to the last whole record.
+     * 
+     * @param doc document to replay journal over
+     * 
+     * @throws IOException when unable to read the journal
+     */
+    public static synchronized void replay(Document doc) throws IOException {
+        File journal = journalFor(doc.getFile());
+        
+        if (!journal.exists()) {
+            return;
+        }
+        
+        long replayed = replay(doc, journal);
+        
+        if (replayed < 0) {
+            return;
+        }
+        
+        try (RandomAccessFile out = new RandomAccessFile(journal, "rw")) {
+            // keep the line end of the last whole record
+            if (replayed < out.length()) {
+                out.seek(replayed);
+                
+                if (out.read() == '\n') {
+                    replayed += 1;
+                }
+            }
+            
+            out.setLength(replayed);
+        }
+    }
+    
+    /**
+     * Replays the journal for a document over the document, without
+     * changing the journal.
+     * 
+     * A record cut short by a crash while appending is skipped, but left
+     * in the journal for the next load to drop.
+     * 
+     * @param doc document to replay journal over
+     * 
+     * @throws IOException when unable to read the journal
+     */
+    public static synchronized void read(Document doc) throws IOException {
+        File journal = journalFor(doc.getFile());
+        
+        if (journal.exists()) {
+            replay(doc, journal);
+        }
+    }
+    
+    /**
+     * Replays the whole records of a journal over a document.
+     * 
+     * @param doc document to replay journal over
+     * @param journal journal file
+     * 
+     * @return length of the whole records when the last record is cut
+     * short, or -1 when every record was replayed
+     * 
+     * @throws IOException when unable to read the journal
+     */
+    private static long replay(Document doc, File journal)
+            throws IOException {
+        ObjectMapper mapper = DocumentMapper.mapper();
+        long replayed = 0;
+        
+        try (MappingIterator<JsonNode> records = mapper
+                .readerFor(JsonNode.class)
+                .readValues(journal)) {
+            while (true) {
+                JsonNode record;
+                
+                try {
+                    if (!records.hasNextValue()) {
+                        return -1;
+                    }
+                    
+                    record = records.nextValue();
+                } catch (JsonProcessingException e) {
+                    return replayed;
+                }
+                
+                apply(doc, record);
+                
+                replayed = records
+                        .getParser()
+                        .getCurrentLocation()
+                        .getByteOffset();
+            }
+        }
+    }
+    
+    /**
+     * Discards journal records that have been written to the document file.
+     * 
+     * Records appended after the given length are kept.
+     * 
+     * @param file document file
+     * @param upTo journal length included in the document file
+     * 
+     * @throws IOException when unable to rewrite the journal
+     */
+    public static synchronized void discard(File file, long upTo)
+            throws IOException {
+        File journal = journalFor(file);
+        long journalLength = journal.length();
+        
+        if (journalLength == 0) {
+            return;
+        }
+        
+        if (journalLength <= upTo) {
+            Files.deleteIfExists(journal.toPath());
+            return;
+        }
+        
+        byte[] kept = new byte[(int) (journalLength - upTo)];
+        
+        try (RandomAccessFile in = new RandomAccessFile(journal, "r")) {
+            in.seek(upTo);
+            in.readFully(kept);
+        }
+        
+        AtomicDocumentWriter.write(journal, kept);
+    }
+    
+    /**
+     * Applies a journal record to a document.
+     * 
+     * @param doc document to apply record to
+     * @param record journal record
+     * 
+     * @throws IOException when the record can not be read
+     */
+    private static void apply(Document doc, JsonNode record)
+            throws IOException {
+        ObjectMapper mapper = DocumentMapper.mapper();
+        String op = record.path("op").asText();
+        String type = record.path("type").asText();
+        JsonNode value = record.path("value");
+        
+        switch (op) {
+            case OP_PUT:
+                switch (type) {
+                    case "epic":
+                        doc.replaceEpic(mapper.treeToValue(value, Epic.class));
+                        break;
+                    case "actor":
+                        doc.replaceActor(mapper.treeToValue(value, Actor.class));
+                        break;
+                    case "story":
+                        doc.replaceStory(mapper.treeToValue(value, Story.class));
+                        break;
+                    case "risk":
+                        doc.replaceRisk(mapper.treeToValue(value, Risk.class));
+                        break;
+                    default:
+                        // ignore
+                }
+                break;
+            case OP_REMOVE:
+                remove(doc, type, UUID.fromString(record.path("id").asText()));
+                break;
+            case OP_ORDER:
+                order(doc, record.path("ids"));
+                break;
+            case OP_HEADER:
+                doc.setTitle(value.path("title").asText(null));
+                doc.setStart(value.path("start").asLong());
+                doc.setEnd(value.path("end").asLong());
+                
+                if (value.hasNonNull("preferences")) {
+                    doc.setPreferences(mapper.treeToValue(
+                            value.get("preferences"),
+                            Preferences.class
+                    ));
+                }
+                break;
+            default:
+                // ignore
+        }
+    }
+    
+    /**
+     * Removes an item from a document.
+     * 
+     * Items that are not in the document are ignored.
+     * 
+     * @param doc document to remove item from
+     * @param type type of item
+     * @param id id of item
+     */
+    private static void remove(Document doc, String type, UUID id) {
+        switch (type) {
+            case "epic":
+                Epic epic = doc.findEpic(id);
+                
+                if (epic != null) {
+                    doc.removeEpic(epic);
+                }
+                break;
+            case "actor":
+                Actor actor = doc.findActor(id);
+                
+                if (actor != null) {
+                    doc.removeActor(actor);
+                }
+                break;
+            case "story":
+                Story story = doc.findStory(id);
+                
+                if (story != null) {
+                    doc.removeStory(story);
+                }
+                break;
+            case "risk":
+                Risk risk = doc.findRisk(id);
+                
+                if (risk != null) {
+                    doc.removeRisk(risk);
+                }
+                break;
+            default:
+                // ignore
+        }
+    }
+    
+    /**
+     * Orders document epics by the given ids.
+     * 
+     * Epics that are not in the list keep their relative order after the
+     * listed epics.
+     * 
+     * @param doc document to order
+     * @param ids epic ids in order
+     */
+    private static void order(Document doc, JsonNode ids) {
+        ArrayList<UUID> ordered = new ArrayList<>();
+        
+        for (JsonNode id : ids) {
+            ordered.add(UUID.fromString(id.asText()));
+        }
+        
+        doc.orderEpics(ordered);
+    }
+    
+    /**
+     * Writes a record as a line.
+     * 
+     * @param out stream to write to
+     * @param record record to write
+     * 
+     * @throws IOException when unable to write the record
+     */
+    private static void writeRecord(ByteArrayOutputStream out, JsonNode record)
+            throws IOException {
+        out.write(DocumentMapper.mapper().writeValueAsBytes(record));
+        out.write("\n".getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Returns the record type of an item.
+     * 
+     * @param item item
+     * 
+     * @return record type
+     * 
+     * @throws IOException when the item can not be journaled
+     */
+    private static String typeOf(Object item) throws IOException {
+        if (item instanceof Epic) {
+            return "epic";
+        }
+        
+        if (item instanceof Actor) {
+            return "actor";
+        }
+        
+        if (item instanceof Story) {
+            return "story";
+        }
+        
+        if (item instanceof Risk) {
+            return "risk";
+        }
+        
+        throw new IOException("Unable to journal " + item.getClass());
+    }
+}
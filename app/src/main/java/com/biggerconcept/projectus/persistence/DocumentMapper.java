@@ -0,0 +1,158 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.UUID;
+
+/**
+ * Shared Jackson configuration for document persistence.
+ * 
+ * Building an object mapper introspects the document model and the
+ * report element types every time. The mapper, reader and writer here
+ * are built once and shared, as readers and writers are immutable and
+ * safe to use from any thread.
+ * 
+ * There is a mapper for each document encoding, configured the same way.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentMapper {
+    /**
+     * Shared object mapper.
+     */
+    private static final ObjectMapper MAPPER = buildMapper(new JsonFactory());
+    
+    /**
+     * Shared document reader.
+     */
+    private static final ObjectReader READER = MAPPER.readerFor(Document.class);
+    
+    /**
+     * Shared document writer.
+     */
+    private static final ObjectWriter WRITER = MAPPER.writerFor(Document.class);
+    
+    /**
+     * Shared object mapper for binary documents.
+     */
+    private static final ObjectMapper SMILE_MAPPER = buildMapper(
+            new SmileFactory()
+    );
+    
+    /**
+     * Shared binary document reader.
+     */
+    private static final ObjectReader SMILE_READER = SMILE_MAPPER
+            .readerFor(Document.class);
+    
+    /**
+     * Shared binary document writer.
+     */
+    private static final ObjectWriter SMILE_WRITER = SMILE_MAPPER
+            .writerFor(Document.class);
+    
+    /**
+     * Builds the object mapper for documents.
+     * 
+     * By default empty or null values are to be omitted from the parser.
+     * 
+     * Ids are always written as strings. Binary encodings would otherwise
+     * write them as binary, which the string id setters can not read back.
+     * 
+     * @param factory factory for the document encoding
+     * 
+     * @return configured object mapper
+     */
+    private static ObjectMapper buildMapper(JsonFactory factory) {
+        ObjectMapper oMap = new ObjectMapper(factory);
+        
+        oMap.setSerializationInclusion(Include.NON_NULL);
+        oMap.setSerializationInclusion(Include.NON_EMPTY);
+        
+        oMap.configOverride(UUID.class).setFormat(
+                JsonFormat.Value.forShape(JsonFormat.Shape.STRING)
+        );
+        
+        return oMap;
+    }
+    
+    /**
+     * Returns the shared object mapper.
+     * 
+     * The mapper must not be reconfigured once it is in use.
+     * 
+     * @return object mapper
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+    
+    /**
+     * Returns the shared document reader.
+     * 
+     * @return document reader
+     */
+    public static ObjectReader reader() {
+        return READER;
+    }
+    
+    /**
+     * Returns the shared document writer.
+     * 
+     * @return document writer
+     */
+    public static ObjectWriter writer() {
+        return WRITER;
+    }
+    
+    /**
+     * Returns the shared object mapper for an encoding.
+     * 
+     * @param format document encoding
+     * 
+     * @return object mapper
+     */
+    public static ObjectMapper mapper(DocumentFormat format) {
+        if (format == DocumentFormat.SMILE) {
+            return SMILE_MAPPER;
+        }
+        
+        return MAPPER;
+    }
+    
+    /**
+     * Returns the shared document reader for an encoding.
+     * 
+     * @param format document encoding
+     * 
+     * @return document reader
+     */
+    public static ObjectReader reader(DocumentFormat format) {
+        if (format == DocumentFormat.SMILE) {
+            return SMILE_READER;
+        }
+        
+        return READER;
+    }
+    
+    /**
+     * Returns the shared document writer for an encoding.
+     * 
+     * @param format document encoding
+     * 
+     * @return document writer
+     */
+    public static ObjectWriter writer(DocumentFormat format) {
+        if (format == DocumentFormat.SMILE) {
+            return SMILE_WRITER;
+        }
+        
+        return WRITER;
+    }
+}
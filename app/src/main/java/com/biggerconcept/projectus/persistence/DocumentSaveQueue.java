@@ -0,0 +1,311 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.domain.DocumentChanges;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Background save queue for documents.
+ * 
+ * A snapshot of the document is taken when a save is requested, and is
+ * written to disk on a background thread with the atomic document writer.
+ * 
+ * When a save is requested for a file that is already waiting to be
+ * written, the waiting snapshot is replaced, so repeated saves made while
+ * a write is in flight result in a single follow up write of the latest
+ * snapshot.
+ * 
+ * Documents saved together are written in a transaction, so that either
+ * all of them or none of them change. A later save of one of them joins
+ * the waiting transaction.
+ * 
+ * Once a snapshot has been written, the journal records that it includes
+ * are discarded.
+ * 
+ * The document changes are cleared when the snapshot is taken, so changes
+ * made while it is written are recorded on their own. When a snapshot can
+ * not be written, the changes it included are handed back to the listener
+ * to be recorded again.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentSaveQueue {
+    /**
+     * Listener for save results.
+     */
+    public interface Listener {
+        /**
+         * Called when a document has been written.
+         * 
+         * This is called on the save thread.
+         * 
+         * @param file file written
+         * @param doc document the snapshot was taken from
+         */
+        public void saved(File file, Document doc);
+        
+        /**
+         * Called when a document could not be written.
+         * 
+         * This is called on the save thread. The file is left as it was,
+         * and the changes the snapshot included are no longer recorded by
+         * the document, so they should be included again.
+         * 
+         * @param file file that could not be written
+         * @param doc document the snapshot was taken from
+         * @param unsaved changes the snapshot included
+         * @param e error
+         */
+        public void failed(
+                File file,
+                Document doc,
+                DocumentChanges unsaved,
+                IOException e
+        );
+    }
+    
+    /**
+     * Snapshots waiting to be written together.
+     */
+    private static class PendingSave {
+        /**
+         * Snapshots by file.
+         */
+        private final LinkedHashMap<File, DocumentSnapshot> snapshots;
+        
+        /**
+         * Actions to run when the snapshots can not be written.
+         */
+        private final ArrayList<Runnable> failureActions;
+        
+        /**
+         * Constructor for pending save.
+         */
+        private PendingSave() {
+            this.snapshots = new LinkedHashMap<>();
+            this.failureActions = new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Snapshots waiting to be written, by file.
+     */
+    private final LinkedHashMap<File, PendingSave> pending;
+    
+    /**
+     * Listener for save results.
+     */
+    private final Listener listener;
+    
+    /**
+     * True while the save thread is running.
+     */
+    private boolean writing;
+    
+    /**
+     * Constructor for save queue.
+     * 
+     * @param listener listener for save results, may be null
+     */
+    public DocumentSaveQueue(Listener listener) {
+        this.pending = new LinkedHashMap<>();
+        this.listener = listener;
+    }
+    
+    /**
+     * Requests that a document is saved to its file.
+     * 
+     * The snapshot is taken on the calling thread, so the document may be
+     * changed as soon as this returns. The document changes are cleared, as
+     * the snapshot includes them, and are handed back to the listener if
+     * the snapshot can not be written.
+     * 
+     * @param doc document to save
+     * 
+     * @throws IOException when unable to snapshot the document
+     */
+    public void save(Document doc) throws IOException {
+        saveTogether(doc);
+    }
+    
+    /**
+     * Requests that documents are saved together.
+     * 
+     * Either all of the documents are written, or none of them are. The
+     * snapshots are taken on the calling thread, and the document changes
+     * are cleared.
+     * 
+     * @param docs documents to save
+     * 
+     * @throws IOException when unable to snapshot the documents
+     */
+    public void saveTogether(Document... docs) throws IOException {
+        saveTogether((Runnable) null, docs);
+    }
+    
+    /**
+     * Requests that documents are saved together, with an action to run
+     * if they can not be written.
+     * 
+     * The action is run on the save thread, after the listener has been
+     * told of the failure.
+     * 
+     * @param onFailure action to run when the documents can not be
+     * written, may be null
+     * @param docs documents to save
+     * 
+     * @throws IOException when unable to snapshot the documents
+     */
+    public void saveTogether(Runnable onFailure, Document... docs)
+            throws IOException {
+        List<DocumentSnapshot> snapshots = new ArrayList<>();
+        
+        for (Document doc : docs) {
+            snapshots.add(new DocumentSnapshot(doc));
+        }
+        
+        for (Document doc : docs) {
+            doc.getChanges().clear();
+        }
+        
+        synchronized (this) {
+            enqueue(snapshots, onFailure);
+            
+            if (writing) {
+                return;
+            }
+            
+            writing = true;
+        }
+        
+        // not a daemon, so that closing the application finishes the write
+        Thread saveThread = new Thread(this::drain, "document-saver");
+        saveThread.start();
+    }
+    
+    /**
+     * Waits until every requested save has been written.
+     * 
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public synchronized void awaitIdle() throws InterruptedException {
+        while (writing) {
+            wait();
+        }
+    }
+    
+    /**
+     * Adds snapshots to the waiting saves.
+     * 
+     * Waiting snapshots of the same files are replaced, and the changes
+     * they included are carried by their replacements. When one of the
+     * files is waiting in a transaction, the other documents of that
+     * transaction join this one, so they are still written together.
+     * 
+     * @param snapshots snapshots to add
+     * @param onFailure action to run when the snapshots can not be
+     * written, may be null
+     */
+    private void enqueue(List<DocumentSnapshot> snapshots, Runnable onFailure) {
+        PendingSave save = new PendingSave();
+        LinkedHashSet<PendingSave> joined = new LinkedHashSet<>();
+        
+        for (DocumentSnapshot s : snapshots) {
+            PendingSave waiting = pending.get(s.file);
+            
+            if (waiting != null && joined.add(waiting)) {
+                save.snapshots.putAll(waiting.snapshots);
+                save.failureActions.addAll(waiting.failureActions);
+            }
+        }
+        
+        for (DocumentSnapshot s : snapshots) {
+            DocumentSnapshot replaced = save.snapshots.put(s.file, s);
+            
+            if (replaced != null && replaced.document == s.document) {
+                s.changes.include(replaced.changes);
+            }
+        }
+        
+        if (onFailure != null) {
+            save.failureActions.add(onFailure);
+        }
+        
+        for (File file : save.snapshots.keySet()) {
+            pending.put(file, save);
+        }
+    }
+    
+    /**
+     * Writes waiting snapshots until there are none left.
+     */
+    private void drain() {
+        while (true) {
+            PendingSave save;
+            
+            synchronized (this) {
+                Iterator<PendingSave> next = pending.values().iterator();
+                
+                if (!next.hasNext()) {
+                    writing = false;
+                    notifyAll();
+                    
+                    return;
+                }
+                
+                save = next.next();
+                pending.keySet().removeAll(save.snapshots.keySet());
+            }
+            
+            try {
+                write(save);
+                
+                if (listener != null) {
+                    for (DocumentSnapshot s : save.snapshots.values()) {
+                        listener.saved(s.file, s.document);
+                    }
+                }
+            } catch (IOException e) {
+                if (listener != null) {
+                    for (DocumentSnapshot s : save.snapshots.values()) {
+                        listener.failed(s.file, s.document, s.changes, e);
+                    }
+                }
+                
+                for (Runnable action : save.failureActions) {
+                    action.run();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Writes snapshots to their files.
+     * 
+     * @param save snapshots to write
+     * 
+     * @throws IOException when unable to write the snapshots
+     */
+    private void write(PendingSave save) throws IOException {
+        if (save.snapshots.size() > 1) {
+            DocumentTransaction.commit(save.snapshots.values());
+            return;
+        }
+        
+        for (DocumentSnapshot s : save.snapshots.values()) {
+            AtomicDocumentWriter.write(
+                    s.file,
+                    s.snapshot,
+                    s.format,
+                    s.compressed
+            );
+            DocumentJournal.discard(s.file, s.journalLength);
+        }
+    }
+}
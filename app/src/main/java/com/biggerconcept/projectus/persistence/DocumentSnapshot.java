@@ -0,0 +1,66 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.domain.DocumentChanges;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Snapshot of a document waiting to be written to its file.
+ * 
+ * @author Andrew Bigger
+ */
+class DocumentSnapshot {
+    /**
+     * Document the snapshot was taken from.
+     */
+    final Document document;
+    
+    /**
+     * File to write the snapshot to.
+     */
+    final File file;
+    
+    /**
+     * Document snapshot.
+     */
+    final TokenBuffer snapshot;
+    
+    /**
+     * Encoding to write the snapshot in.
+     */
+    final DocumentFormat format;
+    
+    /**
+     * Whether to compress the snapshot.
+     */
+    final boolean compressed;
+    
+    /**
+     * Length of the journal when the snapshot was taken.
+     */
+    final long journalLength;
+    
+    /**
+     * Changes of the document that the snapshot includes.
+     */
+    final DocumentChanges changes;
+    
+    /**
+     * Takes a snapshot of a document.
+     * 
+     * @param doc document to snapshot
+     * 
+     * @throws IOException when unable to snapshot the document
+     */
+    DocumentSnapshot(Document doc) throws IOException {
+        this.document = doc;
+        this.file = doc.getFile().getAbsoluteFile();
+        this.snapshot = AtomicDocumentWriter.snapshot(doc);
+        this.format = doc.getPreferences().getDocumentFormat();
+        this.compressed = doc.getPreferences().isCompressed();
+        this.journalLength = DocumentJournal.length(file);
+        this.changes = doc.getChanges().copy();
+    }
+}
@@ -0,0 +1,61 @@
+package com.biggerconcept.projectus.persistence;
+
+import java.io.File;
+
+/**
+ * Modification time and size of a document file and its journal.
+ * 
+ * Used to tell whether a document file has changed since it was last
+ * read or written.
+ * 
+ * @author Andrew Bigger
+ */
+class DocumentStamp {
+    /**
+     * Document file modification time.
+     */
+    private final long modified;
+    
+    /**
+     * Document file size.
+     */
+    private final long size;
+    
+    /**
+     * Journal modification time.
+     */
+    private final long journalModified;
+    
+    /**
+     * Journal size.
+     */
+    private final long journalSize;
+    
+    /**
+     * Constructor for stamp of a document file.
+     * 
+     * @param file document file
+     */
+    DocumentStamp(File file) {
+        File journal = DocumentJournal.journalFor(file);
+        
+        this.modified = file.lastModified();
+        this.size = file.length();
+        this.journalModified = journal.lastModified();
+        this.journalSize = journal.length();
+    }
+    
+    /**
+     * Returns true when the stamps describe the same file state.
+     * 
+     * @param other stamp to compare
+     * 
+     * @return result
+     */
+    boolean matches(DocumentStamp other) {
+        return modified == other.modified
+                && size == other.size
+                && journalModified == other.journalModified
+                && journalSize == other.journalSize;
+    }
+}
@@ -0,0 +1,297 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Actor;
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.domain.Epic;
+import com.biggerconcept.projectus.domain.Preferences;
+import com.biggerconcept.projectus.domain.Risk;
+import com.biggerconcept.projectus.domain.Story;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.UUID;
+
+/**
+ * Streaming loader for documents.
+ * 
+ * Rather than binding the whole file in one go, the document is walked
+ * token by token and each epic, actor, story and risk is bound on its own
+ * and added to the document as soon as it has been read. Only one epic is
+ * ever held as a tree at a time, and a listener is told about each epic
+ * as it arrives so that the window can show it before the rest of the
+ * file has been read.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentStreamLoader {
+    /**
+     * Listener for loading progress.
+     */
+    public interface Listener {
+        /**
+         * Called when an epic has been read and added to the document.
+         * 
+         * This is called on the loading thread.
+         * 
+         * @param epic loaded epic
+         * @param progress fraction of the file read, from 0 to 1
+         */
+        public void epicLoaded(Epic epic, double progress);
+    }
+    
+    /**
+     * Reader for epics.
+     */
+    private static final ObjectReader EPIC_READER = DocumentMapper
+            .mapper()
+            .readerFor(Epic.class);
+    
+    /**
+     * Reader for actors.
+     */
+    private static final ObjectReader ACTOR_READER = DocumentMapper
+            .mapper()
+            .readerFor(Actor.class);
+    
+    /**
+     * Reader for stories.
+     */
+    private static final ObjectReader STORY_READER = DocumentMapper
+            .mapper()
+            .readerFor(Story.class);
+    
+    /**
+     * Reader for risks.
+     */
+    private static final ObjectReader RISK_READER = DocumentMapper
+            .mapper()
+            .readerFor(Risk.class);
+    
+    /**
+     * Reader for preferences.
+     */
+    private static final ObjectReader PREFERENCES_READER = DocumentMapper
+            .mapper()
+            .readerFor(Preferences.class);
+    
+    /**
+     * File to load.
+     */
+    private final File file;
+    
+    /**
+     * Listener for loading progress.
+     */
+    private final Listener listener;
+    
+    /**
+     * Constructor for stream loader.
+     * 
+     * @param file file to load
+     * @param listener listener for progress, may be null
+     */
+    public DocumentStreamLoader(File file, Listener listener) {
+        this.file = file;
+        this.listener = listener;
+    }
+    
+    /**
+     * Loads the document from disk.
+     * 
+     * The encoding of the file is detected from its header, and compressed
+     * files are decompressed as they are read. Progress is reported against
+     * the bytes read from the file.
+     * 
+     * Fields that are not recognised are skipped, as they are when the
+     * document is bound in one go. An interrupted transaction for the file
+     * is finished before it is read, and any journal for the file is
+     * replayed once the file has been read.
+     * 
+     * @return loaded document
+     * 
+     * @throws IOException when unable to read the document
+     */
+    public Document load() throws IOException {
+        DocumentTransaction.recover(file);
+        
+        Document doc = new Document();
+        long length = Math.max(file.length(), 1);
+        CountingInputStream counted = new CountingInputStream(
+                new FileInputStream(file)
+        );
+        
+        try (InputStream in = DocumentStreams.open(counted)) {
+            ObjectMapper mapper = DocumentMapper.mapper(
+                    DocumentFormat.detect(in)
+            );
+            
+            load(doc, mapper.getFactory().createParser(in), counted, length);
+        }
+        
+        doc.setFile(file);
+        
+        DocumentJournal.replay(doc);
+        doc.getChanges().clear();
+        
+        return doc;
+    }
+    
+    /**
+     * Reads document fields from the parser into the document.
+     * 
+     * @param doc document to fill
+     * @param parser parser of document
+     * @param counted stream counting bytes read from the file
+     * @param length length of the file
+     * 
+     * @throws IOException when unable to read the document
+     */
+    private void load(
+            Document doc,
+            JsonParser parser,
+            CountingInputStream counted,
+            long length
+    ) throws IOException {
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Document is not a JSON object");
+            }
+            
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                
+                switch (field) {
+                    case "id":
+                        doc.setId(UUID.fromString(parser.getText()));
+                        break;
+                    case "title":
+                        doc.setTitle(parser.getText());
+                        break;
+                    case "start":
+                        doc.setStart(parser.getLongValue());
+                        break;
+                    case "end":
+                        doc.setEnd(parser.getLongValue());
+                        break;
+                    case "preferences":
+                        doc.setPreferences(
+                                PREFERENCES_READER.readValue(parser)
+                        );
+                        break;
+                    case "actors":
+                        doc.setActors(new ArrayList<>());
+                        
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            doc.addActor(ACTOR_READER.readValue(parser));
+                        }
+                        break;
+                    case "stories":
+                        doc.setStories(new ArrayList<>());
+                        
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            doc.addStory(STORY_READER.readValue(parser));
+                        }
+                        break;
+                    case "risks":
+                        doc.setRisks(new ArrayList<>());
+                        
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            doc.addRisk(RISK_READER.readValue(parser));
+                        }
+                        break;
+                    case "epics":
+                        doc.setEpics(new ArrayList<>());
+                        
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            Epic epic = EPIC_READER.readValue(parser);
+                            doc.addEpic(epic);
+                            
+                            if (listener != null) {
+                                long read = counted.getCount();
+                                
+                                listener.epicLoaded(
+                                        epic,
+                                        Math.min(1.0, (double) read / length)
+                                );
+                            }
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        } finally {
+            parser.close();
+        }
+    }
+    
+    /**
+     * Stream that counts the bytes read through it.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        /**
+         * Bytes read.
+         */
+        private long count;
+        
+        /**
+         * Constructor for counting stream.
+         * 
+         * @param in stream to count
+         */
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        /**
+         * Getter for bytes read.
+         * 
+         * @return bytes read
+         */
+        private long getCount() {
+            return count;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            
+            if (b >= 0) {
+                count += 1;
+            }
+            
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            
+            if (read > 0) {
+                count += read;
+            }
+            
+            return read;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            
+            return skipped;
+        }
+    }
+}
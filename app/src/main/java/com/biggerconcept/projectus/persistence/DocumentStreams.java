@@ -0,0 +1,136 @@
+package com.biggerconcept.projectus.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams for reading and writing document files.
+ * 
+ * Document files may be gzip compressed. Compression is detected from the
+ * gzip header when reading, and the file is decompressed as it is read, so
+ * an uncompressed copy is never held in memory.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentStreams {
+    /**
+     * Size of stream buffers.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    /**
+     * First byte of the gzip header.
+     */
+    private static final int GZIP_MAGIC_ONE = 0x1f;
+    
+    /**
+     * Second byte of the gzip header.
+     */
+    private static final int GZIP_MAGIC_TWO = 0x8b;
+    
+    /**
+     * Opens a document file for reading.
+     * 
+     * @param file file to open
+     * 
+     * @return buffered and decompressed stream of the document
+     * 
+     * @throws IOException when unable to open the file
+     */
+    public static InputStream open(File file) throws IOException {
+        return open(new FileInputStream(file));
+    }
+    
+    /**
+     * Opens a stream of a document file for reading.
+     * 
+     * The returned stream supports mark and reset, so the encoding of the
+     * document can be detected from it.
+     * 
+     * @param raw stream of document file
+     * 
+     * @return buffered and decompressed stream of the document
+     * 
+     * @throws IOException when unable to read the stream
+     */
+    public static InputStream open(InputStream raw) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(raw, BUFFER_SIZE);
+        
+        try {
+            if (isCompressed(in)) {
+                return new BufferedInputStream(
+                        new GZIPInputStream(in, BUFFER_SIZE),
+                        BUFFER_SIZE
+                );
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        
+        return in;
+    }
+    
+    /**
+     * Creates a stream to write a document to a file stream.
+     * 
+     * Closing the returned stream writes out any compressed data but
+     * leaves the file stream open, so that it can be synced.
+     * 
+     * @param out stream of document file
+     * @param compressed whether to compress the document
+     * 
+     * @return stream to write document to
+     * 
+     * @throws IOException when unable to write the stream
+     */
+    public static OutputStream create(OutputStream out, boolean compressed)
+            throws IOException {
+        OutputStream file = new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+            
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        
+        if (compressed) {
+            return new GZIPOutputStream(file, BUFFER_SIZE);
+        }
+        
+        return file;
+    }
+    
+    /**
+     * Returns true if the stream starts with a gzip header.
+     * 
+     * The position of the stream is not changed.
+     * 
+     * @param in stream to inspect
+     * 
+     * @return result
+     * 
+     * @throws IOException when unable to read the stream
+     */
+    private static boolean isCompressed(InputStream in) throws IOException {
+        in.mark(2);
+        
+        int first = in.read();
+        int second = in.read();
+        
+        in.reset();
+        
+        return first == GZIP_MAGIC_ONE && second == GZIP_MAGIC_TWO;
+    }
+}
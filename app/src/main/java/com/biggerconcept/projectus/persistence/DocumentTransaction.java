@@ -0,0 +1,374 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes several documents so that either all or none of them change.
+ * 
+ * A commit runs in these steps:
+ * 
+ * 1. Each document is written to a temporary file next to its target.
+ *    The documents are written in parallel.
+ * 2. A marker file is written next to each document. Every marker lists
+ *    all the documents in the transaction. The transaction is committed
+ *    once every marker exists.
+ * 3. The temporary files are renamed over their targets.
+ * 4. The journal records included in the documents are discarded.
+ * 5. The markers are removed.
+ * 
+ * If the application stops part way through, the transaction is finished
+ * when any of its documents is next loaded. When every marker exists, the
+ * remaining temporary files are renamed over their targets. Otherwise the
+ * transaction was not committed, and its temporary files are removed.
+ * Temporary files left by a transaction that stopped before writing any
+ * marker are removed as well.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentTransaction {
+    /**
+     * Suffix of transaction marker files.
+     */
+    public static final String MARKER_SUFFIX = ".transaction";
+    
+    /**
+     * Suffix of temporary files.
+     */
+    private static final String TEMP_SUFFIX = ".pending";
+    
+    /**
+     * Saves documents together.
+     * 
+     * The document changes are cleared, as the saved documents include
+     * them.
+     * 
+     * @param docs documents to save
+     * 
+     * @throws IOException when unable to save the documents
+     */
+    public static void commit(Document... docs) throws IOException {
+        List<DocumentSnapshot> snapshots = new ArrayList<>();
+        
+        for (Document doc : docs) {
+            snapshots.add(new DocumentSnapshot(doc));
+        }
+        
+        for (Document doc : docs) {
+            doc.getChanges().clear();
+        }
+        
+        commit(snapshots);
+    }
+    
+    /**
+     * Writes document snapshots together.
+     * 
+     * @param snapshots snapshots to write
+     * 
+     * @throws IOException when unable to write the snapshots
+     */
+    static synchronized void commit(Collection<DocumentSnapshot> snapshots)
+            throws IOException {
+        String id = UUID.randomUUID().toString();
+        List<File> markers = new ArrayList<>();
+        boolean committed = false;
+        
+        try {
+            prepare(id, snapshots);
+            
+            byte[] marker = markerFor(id, snapshots);
+            
+            for (DocumentSnapshot s : snapshots) {
+                File m = markerFor(s.file);
+                
+                markers.add(m);
+                AtomicDocumentWriter.write(m, marker);
+            }
+            
+            committed = true;
+            
+            for (DocumentSnapshot s : snapshots) {
+                rename(tempFor(s.file, id), s.file);
+            }
+            
+            for (DocumentSnapshot s : snapshots) {
+                DocumentJournal.discard(s.file, s.journalLength);
+            }
+            
+            for (File m : markers) {
+                Files.deleteIfExists(m.toPath());
+            }
+        } finally {
+            if (!committed) {
+                for (DocumentSnapshot s : snapshots) {
+                    Files.deleteIfExists(tempFor(s.file, id).toPath());
+                }
+                
+                for (File m : markers) {
+                    Files.deleteIfExists(m.toPath());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Finishes a transaction that was interrupted while writing a file.
+     * 
+     * Temporary files of the document that no transaction can finish are
+     * removed. Otherwise does nothing when the file is not part of an
+     * unfinished transaction.
+     * 
+     * @param file document file
+     * 
+     * @throws IOException when unable to finish the transaction
+     */
+    public static synchronized void recover(File file) throws IOException {
+        File marker = markerFor(file.getAbsoluteFile());
+        
+        if (marker.exists()) {
+            finish(marker);
+        }
+        
+        removeOrphans(file.getAbsoluteFile());
+    }
+    
+    /**
+     * Finishes the transaction of a marker.
+     * 
+     * @param marker marker file
+     * 
+     * @throws IOException when unable to finish the transaction
+     */
+    private static void finish(File marker) throws IOException {
+        ObjectMapper mapper = DocumentMapper.mapper();
+        JsonNode record = mapper.readTree(marker);
+        String id = record.path("id").asText();
+        boolean committed = true;
+        
+        for (JsonNode part : record.path("documents")) {
+            File other = markerFor(new File(part.path("file").asText()));
+            
+            if (!other.exists()
+                    || !id.equals(mapper.readTree(other).path("id").asText())) {
+                committed = false;
+            }
+        }
+        
+        LinkedHashSet<File> markers = new LinkedHashSet<>();
+        markers.add(marker);
+        
+        for (JsonNode part : record.path("documents")) {
+            File target = new File(part.path("file").asText());
+            File temp = tempFor(target, id);
+            
+            if (committed) {
+                if (temp.exists()) {
+                    rename(temp, target);
+                }
+                
+                DocumentJournal.discard(
+                        target,
+                        part.path("journalLength").asLong()
+                );
+            } else {
+                Files.deleteIfExists(temp.toPath());
+            }
+            
+            markers.add(markerFor(target));
+        }
+        
+        for (File m : markers) {
+            if (m.exists()
+                    && id.equals(mapper.readTree(m).path("id").asText())) {
+                Files.delete(m.toPath());
+            }
+        }
+    }
+    
+    /**
+     * Removes temporary files of a document left by transactions that
+     * stopped before writing their markers.
+     * 
+     * This must only be called when the document has no marker, so none
+     * of its temporary files can still be committed.
+     * 
+     * @param file document file
+     * 
+     * @throws IOException when unable to remove a file
+     */
+    private static void removeOrphans(File file) throws IOException {
+        String prefix = "." + file.getName() + ".";
+        
+        File[] temps = file.getParentFile().listFiles((dir, name) -> {
+            if (!name.startsWith(prefix) || !name.endsWith(TEMP_SUFFIX)) {
+                return false;
+            }
+            
+            String id = name.substring(
+                    prefix.length(),
+                    name.length() - TEMP_SUFFIX.length()
+            );
+            
+            try {
+                return UUID.fromString(id).toString().equals(id);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        });
+        
+        if (temps == null) {
+            return;
+        }
+        
+        for (File temp : temps) {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+    
+    /**
+     * Returns the transaction marker file for a document file.
+     * 
+     * @param file document file
+     * 
+     * @return marker file
+     */
+    public static File markerFor(File file) {
+        return new File(
+                file.getAbsoluteFile().getParentFile(),
+                "." + file.getName() + MARKER_SUFFIX
+        );
+    }
+    
+    /**
+     * Writes snapshots to their temporary files in parallel.
+     * 
+     * @param id transaction id
+     * @param snapshots snapshots to write
+     * 
+     * @throws IOException when unable to write a snapshot
+     */
+    private static void prepare(
+            String id,
+            Collection<DocumentSnapshot> snapshots
+    ) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(snapshots.size());
+        
+        try {
+            List<Future<Void>> writes = new ArrayList<>();
+            
+            for (DocumentSnapshot s : snapshots) {
+                writes.add(pool.submit(() -> {
+                    File temp = tempFor(s.file, id);
+                    
+                    try (FileOutputStream out = new FileOutputStream(temp)) {
+                        AtomicDocumentWriter.writeTo(
+                                out,
+                                s.snapshot,
+                                s.format,
+                                s.compressed
+                        );
+                        out.getFD().sync();
+                    }
+                    
+                    AtomicDocumentWriter.syncDirectory(
+                            temp.toPath().getParent()
+                    );
+                    
+                    return null;
+                }));
+            }
+            
+            for (Future<Void> write : writes) {
+                write.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while saving documents", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            
+            throw new IOException("Unable to save documents", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Builds the marker for a transaction.
+     * 
+     * @param id transaction id
+     * @param snapshots snapshots in the transaction
+     * 
+     * @return marker content
+     * 
+     * @throws IOException when unable to build the marker
+     */
+    private static byte[] markerFor(
+            String id,
+            Collection<DocumentSnapshot> snapshots
+    ) throws IOException {
+        ObjectMapper mapper = DocumentMapper.mapper();
+        ObjectNode record = mapper.createObjectNode();
+        record.put("id", id);
+        
+        ArrayNode documents = record.putArray("documents");
+        
+        for (DocumentSnapshot s : snapshots) {
+            ObjectNode part = documents.addObject();
+            part.put("file", s.file.getPath());
+            part.put("journalLength", s.journalLength);
+        }
+        
+        return mapper.writeValueAsBytes(record);
+    }
+    
+    /**
+     * Returns the temporary file for a document in a transaction.
+     * 
+     * @param file document file
+     * @param id transaction id
+     * 
+     * @return temporary file
+     */
+    private static File tempFor(File file, String id) {
+        return new File(
+                file.getAbsoluteFile().getParentFile(),
+                "." + file.getName() + "." + id + TEMP_SUFFIX
+        );
+    }
+    
+    /**
+     * Renames a temporary file over its target.
+     * 
+     * @param temp temporary file
+     * @param target target file
+     * 
+     * @throws IOException when unable to rename the file
+     */
+    private static void rename(File temp, File target) throws IOException {
+        Path dir = target.toPath().toAbsolutePath().getParent();
+        
+        AtomicDocumentWriter.move(temp.toPath(), target.toPath());
+        AtomicDocumentWriter.syncDirectory(dir);
+    }
+}
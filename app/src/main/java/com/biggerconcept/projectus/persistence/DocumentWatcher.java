@@ -0,0 +1,210 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Document;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Watches a document file for changes made outside the application.
+ * 
+ * The directory of the document is watched on a background thread. When
+ * the document file or its journal changes, the watcher waits for the
+ * writer to settle, then reads the document and hands it to the listener.
+ * 
+ * Writes made by the application itself should be reported with
+ * written(), so that they are not mistaken for outside changes.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentWatcher implements Closeable {
+    /**
+     * Listener for outside changes.
+     */
+    public interface Listener {
+        /**
+         * Called when the document file has been changed.
+         * 
+         * This is called on the watcher thread.
+         * 
+         * @param doc document loaded from the changed file
+         */
+        public void changed(Document doc);
+    }
+    
+    /**
+     * Time to wait for a writer to finish before loading the document.
+     */
+    private static final long SETTLE_MILLIS = 250;
+    
+    /**
+     * Watched document file.
+     */
+    private final File file;
+    
+    /**
+     * Listener for outside changes.
+     */
+    private final Listener listener;
+    
+    /**
+     * Watch service for the document directory.
+     */
+    private final WatchService service;
+    
+    /**
+     * File state last read or written by the application.
+     */
+    private DocumentStamp seen;
+    
+    /**
+     * Constructor for document watcher.
+     * 
+     * Watching starts straight away.
+     * 
+     * @param file document file to watch
+     * @param listener listener for outside changes
+     * 
+     * @throws IOException when unable to watch the document directory
+     */
+    public DocumentWatcher(File file, Listener listener) throws IOException {
+        this.file = file.getAbsoluteFile();
+        this.listener = listener;
+        this.seen = new DocumentStamp(this.file);
+        this.service = FileSystems.getDefault().newWatchService();
+        
+        this.file.getParentFile().toPath().register(
+                service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY
+        );
+        
+        Thread watchThread = new Thread(this::watch, "document-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+    
+    /**
+     * Getter for watched file.
+     * 
+     * @return watched document file
+     */
+    public File getFile() {
+        return file;
+    }
+    
+    /**
+     * Records that the application has written the document file or its
+     * journal.
+     * 
+     * Writes to other files are ignored.
+     * 
+     * @param written file written
+     */
+    public synchronized void written(File written) {
+        if (file.equals(written.getAbsoluteFile())) {
+            seen = new DocumentStamp(file);
+        }
+    }
+    
+    /**
+     * Stops watching the document.
+     * 
+     * @throws IOException when unable to close the watch service
+     */
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+    
+    /**
+     * Waits for changes to the document until the watcher is closed.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean relevant = isDocumentEvent(key);
+                key.reset();
+                
+                if (!relevant) {
+                    continue;
+                }
+                
+                // let the writer finish, and drop the events it causes
+                Thread.sleep(SETTLE_MILLIS);
+                
+                while ((key = service.poll()) != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                
+                if (!changedOnDisk()) {
+                    continue;
+                }
+                
+                try {
+                    listener.changed(Document.read(file));
+                } catch (IOException | RuntimeException e) {
+                    // ignore, the next write will be picked up
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // watcher closed
+        }
+    }
+    
+    /**
+     * Returns true when a watch key has events for the document file or
+     * its journal.
+     * 
+     * @param key watch key with events
+     * 
+     * @return result
+     */
+    private boolean isDocumentEvent(WatchKey key) {
+        String name = file.getName();
+        String journal = DocumentJournal.journalFor(file).getName();
+        boolean relevant = false;
+        
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+                continue;
+            }
+            
+            String changed = ((Path) event.context()).toString();
+            
+            if (changed.equals(name) || changed.equals(journal)) {
+                relevant = true;
+            }
+        }
+        
+        return relevant;
+    }
+    
+    /**
+     * Returns true when the document has changed since the application
+     * last read or wrote it, and records the new file state.
+     * 
+     * @return result
+     */
+    private synchronized boolean changedOnDisk() {
+        DocumentStamp now = new DocumentStamp(file);
+        
+        if (now.matches(seen)) {
+            return false;
+        }
+        
+        seen = now;
+        
+        return true;
+    }
+}
@@ -38,8 +38,10 @@ import com.biggerconcept.projectus.reports.paragraphs.CodeElement;
 import com.biggerconcept.projectus.reports.paragraphs.MarkdownElement;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 /**
  * Element is a portion of a report.
@@ -53,6 +55,10 @@ public class Element extends com.biggerconcept.sdk.reports.elements.Element
      * Constructs set of paragraphs, sections and variables for
      * the report builder.
      * 
+     * Variables are the report variables of the render context of the
+     * state, so a value is only worked out when a report refers to it,
+     * and is shared with the elements that render it.
+     * 
      * @param state application state
      * 
      * @return source content
@@ -91,405 +97,7 @@ public class Element extends com.biggerconcept.sdk.reports.elements.Element
         content.addSection(new SelectedEpicTasksOutlineElement(state));
         content.addSection(new SelectedEpicOutlookTableElement(state));
         
-        content.addVariable(
-                "project_name", 
-                Variables.projectName(state)
-        );
-        
-        content.addVariable(
-                "project_start_date", 
-                Variables.projectStartDate(state)
-        );
-        
-        content.addVariable(
-                "project_end_date", 
-                Variables.projectEndDate(state)
-        );
-        
-        content.addVariable(
-                "weeks_elapsed", 
-                Variables.weeksElapsed(state)
-        );
-        
-        content.addVariable(
-                "weeks_total", 
-                Variables.weeksTotal(state)
-        );
-        
-        content.addVariable(
-                "weeks_remaining", 
-                Variables.weeksRemaining(state)
-        );
-        
-        content.addVariable(
-                "sprints_elapsed", 
-                Variables.sprintsElapsed(state)
-        );
-        
-        content.addVariable(
-                "sprints_total", 
-                Variables.sprintsTotal(state)
-        );
-        
-        content.addVariable(
-                "sprints_remaining", 
-                Variables.sprintsRemaining(state)
-        );
-        
-        content.addVariable(
-                "points_completed", 
-                Variables.pointsCompleted(state)
-        );
-        
-        content.addVariable(
-                "points_total", 
-                Variables.pointsTotal(state)
-        );
-        
-        content.addVariable(
-                "points_remaining", 
-                Variables.pointsRemaining(state)
-        );
-        
-        content.addVariable(
-                "velocity", 
-                Variables.velocity(state)
-        );
-        
-        content.addVariable(
-                "tracking_status", 
-                Variables.trackingStatus(state)
-        );
-        
-        content.addVariable(
-                "committed_points", 
-                Variables.committedPoints(state)
-        );
-        
-        content.addVariable(
-                "available_points", 
-                Variables.availablePoints(state)
-        );
-        
-        content.addVariable(
-                "xs_task_size", 
-                Variables.xsTaskSize(state)
-        );
-        
-        content.addVariable(
-                "s_task_size", 
-                Variables.sTaskSize(state)
-        );
-        
-        content.addVariable(
-                "m_task_size", 
-                Variables.mTaskSize(state)
-        );
-        
-        content.addVariable(
-                "l_task_size", 
-                Variables.lTaskSize(state)
-        );
-        
-        content.addVariable(
-                "xl_task_size", 
-                Variables.xlTaskSize(state)
-        );
-        
-        content.addVariable(
-                "sprint_length", 
-                Variables.sprintLength(state)
-        );
-        
-        content.addVariable(
-                "estimate_buffer", 
-                Variables.estimateBuffer(state)
-        );
-        
-        content.addVariable(
-                "epic_count", 
-                Variables.epicCount(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_name", 
-                Variables.selectedEpicName(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_identifier", 
-                Variables.selectedEpicIdentifier(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_sized_task_count", 
-                Variables.selectedEpicSizedTaskCount(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_completed_task_count", 
-                Variables.selectedEpicCompleteTaskCount(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_task_count", 
-                Variables.selectedEpicTaskCount(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_total_points", 
-                Variables.selectedEpicTotalPoints(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_complete_points", 
-                Variables.selectedEpicCompletePoints(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_estimate_points", 
-                Variables.selectedEpicEstimatePoints(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_status", 
-                Variables.selectedEpicStatus(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_risk_count", 
-                Variables.selectedEpicRiskCount(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_story_count", 
-                Variables.selectedEpicStoryCount(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_buffer", 
-                Variables.selectedEpicOutlookBuffer(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_buffer_excl_completed_points", 
-                Variables.selectedEpicOutlookBufferExclCompletedPoints(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_estimate_points_with_buffer", 
-                Variables.selectedEpicOutlookEstimatePointsWithBuffer(state)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_three_points_per_sprint", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, 3, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_three_sprints", 
-                Variables.selectedEpicOutlookSprints(state, 3, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_three_weeks", 
-                Variables.selectedEpicOutlookWeeks(state, 3, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_two_points_per_sprint", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, 2, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_two_sprints", 
-                Variables.selectedEpicOutlookSprints(state, 2, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_two_weeks", 
-                Variables.selectedEpicOutlookWeeks(state, 2, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_one_points_per_sprint", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, 1, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_one_sprints", 
-                Variables.selectedEpicOutlookSprints(state, 1, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_one_weeks", 
-                Variables.selectedEpicOutlookWeeks(state, 1, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_points_per_sprint", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, 0, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_sprints", 
-                Variables.selectedEpicOutlookSprints(state, 0, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_weeks", 
-                Variables.selectedEpicOutlookWeeks(state, 0, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_one_points_per_sprint", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, -1, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_one_sprints", 
-                Variables.selectedEpicOutlookSprints(state, -1, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_one_weeks", 
-                Variables.selectedEpicOutlookWeeks(state, -1, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_two_points_per_sprint", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, -2, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_two_sprints", 
-                Variables.selectedEpicOutlookSprints(state, -2, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_two_weeks", 
-                Variables.selectedEpicOutlookWeeks(state, -2, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_three_points_per_sprint", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, -3, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_three_sprints", 
-                Variables.selectedEpicOutlookSprints(state, -3, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_three_weeks", 
-                Variables.selectedEpicOutlookWeeks(state, -3, false)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_three_points_per_sprint_excl_completed_points", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, 3, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_three_sprints_excl_completed_points", 
-                Variables.selectedEpicOutlookSprints(state, 3, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_three_weeks_excl_completed_points", 
-                Variables.selectedEpicOutlookWeeks(state, 3, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_two_points_per_sprint_excl_completed_points", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, 2, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_two_sprints_excl_completed_points", 
-                Variables.selectedEpicOutlookSprints(state, 2, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_two_weeks_excl_completed_points", 
-                Variables.selectedEpicOutlookWeeks(state, 2, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_one_points_per_sprint_excl_completed_points", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, 1, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_one_sprints_excl_completed_points", 
-                Variables.selectedEpicOutlookSprints(state, 1, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_plus_one_weeks_excl_completed_points", 
-                Variables.selectedEpicOutlookWeeks(state, 1, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_points_per_sprint_excl_completed_points", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, 0, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_sprints_excl_completed_points", 
-                Variables.selectedEpicOutlookSprints(state, 0, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_weeks_excl_completed_points", 
-                Variables.selectedEpicOutlookWeeks(state, 0, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_one_points_per_sprint_excl_completed_points", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, -1, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_one_sprints_excl_completed_points", 
-                Variables.selectedEpicOutlookSprints(state, -1, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_one_weeks_excl_completed_points", 
-                Variables.selectedEpicOutlookWeeks(state, -1, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_two_points_per_sprint_excl_completed_points", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, -2, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_two_sprints_excl_completed_points", 
-                Variables.selectedEpicOutlookSprints(state, -2, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_two_weeks_excl_completed_points", 
-                Variables.selectedEpicOutlookWeeks(state, -2, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_three_points_per_sprint_excl_completed_points", 
-                Variables.selectedEpicOutlookPointsPerSprint(state, -3, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_three_sprints_excl_completed_points", 
-                Variables.selectedEpicOutlookSprints(state, -3, true)
-        );
-        
-        content.addVariable(
-                "selected_epic_outlook_minus_three_weeks_excl_completed_points", 
-                Variables.selectedEpicOutlookWeeks(state, -3, true)
-        );
+        content.setVariables(state.getRenderContext().getVariables());
         
         return content;
     }
@@ -500,6 +108,12 @@ public class Element extends com.biggerconcept.sdk.reports.elements.Element
     @JsonIgnore
     private State state;
     
+    /**
+     * Element content parsed for rendering.
+     */
+    @JsonIgnore
+    private volatile Template template;
+    
     /**
      * Default constructor.
      */
@@ -542,6 +156,19 @@ public class Element extends com.biggerconcept.sdk.reports.elements.Element
         return state.getOpenDocument();
     }
     
+    /**
+     * Getter for render context.
+     * 
+     * This will retrieve the context of the current report run from
+     * application state.
+     * 
+     * @return render context
+     */
+    @JsonIgnore
+    public RenderContext getRenderContext() {
+        return state.getRenderContext();
+    }
+    
     /**
      * Setter for state.
      * 
@@ -552,6 +179,92 @@ public class Element extends com.biggerconcept.sdk.reports.elements.Element
         state = value;
     }
     
+    /**
+     * Returns the variables to compile element content with.
+     * 
+     * Variables are resolved from the render context as they are referred
+     * to, and shared by every element of a report run. Elements without
+     * state use the variables given to them.
+     * 
+     * @param vars content variables
+     * 
+     * @return variables
+     */
+    protected HashMap<String, String> resolveVariables(
+            HashMap<String, String> vars
+    ) {
+        if (state == null) {
+            return vars;
+        }
+        
+        return getRenderContext().getVariables();
+    }
+    
+    /**
+     * Renders element content with report variables.
+     * 
+     * Content is parsed into a template the first time it is rendered,
+     * and again only when it has changed. Content that can not be parsed
+     * is compiled as it is.
+     * 
+     * @param content element content
+     * @param vars content variables
+     * 
+     * @return rendered content
+     */
+    protected String render(String content, HashMap<String, String> vars) {
+        HashMap<String, String> variables = resolveVariables(vars);
+        Template parsed = template(content);
+        
+        if (parsed == null) {
+            return compile(content, variables);
+        }
+        
+        return parsed.render(variables);
+    }
+    
+    /**
+     * Returns the names of the variables the element refers to.
+     * 
+     * @return variable names
+     */
+    public Set<String> referencedVariables() {
+        Template parsed = template(getArgs());
+        
+        if (parsed == null) {
+            return Collections.emptySet();
+        }
+        
+        return parsed.getNames();
+    }
+    
+    /**
+     * Returns element content parsed into a template.
+     * 
+     * @param content element content
+     * 
+     * @return template, or null when the content can not be parsed
+     */
+    private Template template(String content) {
+        if (content == null) {
+            return null;
+        }
+        
+        Template parsed = template;
+        
+        if (parsed == null || !parsed.isFor(content)) {
+            parsed = Template.parse(
+                    content,
+                    ReportVariables.names(),
+                    this::compile
+            );
+            
+            template = parsed;
+        }
+        
+        return parsed;
+    }
+    
     /**
      * Constructs and returns an editor dialog for the current element.
      *
@@ -576,19 +289,34 @@ public class Element extends com.biggerconcept.sdk.reports.elements.Element
     }
 
     /**
-     * Insertion callback.
+     * Insertion callback for elements that do not use the document tree.
+     * 
+     * This does nothing unless it is overridden in the child element.
+     * 
+     * @param document report document
+     * @param vars content variables
      * 
-     * This will insert the element into the report document.
+     * @throws IOException if unable to read file
+     */
+    public void insertInto(Doc document, HashMap<String, String> vars) 
+            throws IOException {}
+
+    /**
+     * Insertion callback.
      * 
-     * This will throw an UnsupportedOperationException if it is not
-     * overridden in the child element.
+     * This will insert the element into the report document. Unless it is
+     * overridden in the child element, the element is inserted without
+     * the document tree.
      * 
      * @param document report document
      * @param vars content variables
+     * @param root document tree node to insert into
      * 
      * @throws IOException if unable to read file
      */
     @Override
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
-            throws IOException {}
+            throws IOException {
+        insertInto(document, vars);
+    }
 }
@@ -0,0 +1,94 @@
+package com.biggerconcept.projectus.reports;
+
+import com.biggerconcept.sdk.serializers.documents.Doc;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Part of a report, prepared apart from the report document.
+ * 
+ * A fragment records the content an element inserts, so that preparing
+ * the content is kept apart from writing it into the report document.
+ * 
+ * @author Andrew Bigger
+ */
+public class Fragment {
+    /**
+     * Recorded content, in the order it was inserted.
+     */
+    private final ArrayList<Consumer<Doc>> content = new ArrayList<>();
+    
+    /**
+     * Inserts a level three heading.
+     * 
+     * @param text heading text
+     */
+    public void h3(String text) {
+        content.add((doc) -> doc.h3(text));
+    }
+    
+    /**
+     * Inserts a paragraph.
+     * 
+     * @param text paragraph text
+     */
+    public void p(String text) {
+        content.add((doc) -> doc.p(text));
+    }
+    
+    /**
+     * Inserts a strong paragraph.
+     * 
+     * @param text paragraph text
+     */
+    public void strong(String text) {
+        content.add((doc) -> doc.strong(text));
+    }
+    
+    /**
+     * Inserts markdown.
+     * 
+     * @param text markdown text
+     */
+    public void md(String text) {
+        content.add((doc) -> doc.md(text));
+    }
+    
+    /**
+     * Inserts a table.
+     * 
+     * @param headers table headers
+     * @param rows table rows
+     */
+    public void table(
+            ArrayList<String> headers,
+            ArrayList<ArrayList<String>> rows
+    ) {
+        content.add((doc) -> doc.table(headers, rows));
+    }
+    
+    /**
+     * Inserts a new line.
+     */
+    public void nl() {
+        content.add((doc) -> doc.nl());
+    }
+    
+    /**
+     * Inserts a page break.
+     */
+    public void br() {
+        content.add((doc) -> doc.br());
+    }
+    
+    /**
+     * Writes the fragment into a report document.
+     * 
+     * @param doc report document
+     */
+    public void writeTo(Doc doc) {
+        for (Consumer<Doc> c : content) {
+            c.accept(doc);
+        }
+    }
+}
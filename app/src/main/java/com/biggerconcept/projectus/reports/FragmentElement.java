@@ -0,0 +1,53 @@
+package com.biggerconcept.projectus.reports;
+
+import com.biggerconcept.projectus.State;
+import com.biggerconcept.sdk.serializers.documents.Doc;
+
+/**
+ * Element that prepares its content as a fragment.
+ * 
+ * Sections that walk the whole document or epic extend this. The content
+ * is prepared from the render context first, and then written into the
+ * report document.
+ * 
+ * @author Andrew Bigger
+ */
+public abstract class FragmentElement extends Element {
+    /**
+     * Default constructor.
+     */
+    public FragmentElement() {
+        super();
+    }
+    
+    /**
+     * State based constructor.
+     * 
+     * @param state application state
+     */
+    public FragmentElement(State state) {
+        super(state);
+    }
+    
+    /**
+     * Prepares the content of the element.
+     * 
+     * @return prepared content
+     */
+    public abstract Fragment prepare();
+    
+    /**
+     * Inserts the prepared content of the element into a report document.
+     * 
+     * Elements without state have no content to insert.
+     * 
+     * @param document report document
+     */
+    protected void insertFragment(Doc document) {
+        if (getState() == null) {
+            return;
+        }
+        
+        prepare().writeTo(document);
+    }
+}
@@ -0,0 +1,179 @@
+package com.biggerconcept.projectus.reports;
+
+import com.biggerconcept.projectus.State;
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.domain.Epic;
+import com.biggerconcept.projectus.domain.Outlook;
+import com.biggerconcept.projectus.domain.Preferences;
+import com.biggerconcept.projectus.domain.StatusSnapshot;
+import com.biggerconcept.projectus.helpers.Date;
+
+/**
+ * Everything a report run reads from the open document.
+ * 
+ * The project status and the outlook of the open epic, with and without
+ * completed points, are worked out the first time they are needed, and
+ * shared by every variable and element of the report. The context belongs
+ * to the state of the application when it was created, so a new context
+ * is needed once the open document, its revision, the open epic or the
+ * day has changed.
+ * 
+ * @author Andrew Bigger
+ */
+public class RenderContext {
+    /**
+     * Document being reported on.
+     */
+    private final Document document;
+    
+    /**
+     * Epic being reported on, if any.
+     */
+    private final Epic epic;
+    
+    /**
+     * Document preferences.
+     */
+    private final Preferences preferences;
+    
+    /**
+     * Project status, or null until it is needed.
+     */
+    private StatusSnapshot status;
+    
+    /**
+     * Outlook of epic including completed points, or null until it is
+     * needed.
+     */
+    private Outlook outlook;
+    
+    /**
+     * Outlook of epic excluding completed points, or null until it is
+     * needed.
+     */
+    private Outlook outlookExclCompletedPoints;
+    
+    /**
+     * Revision of document when context was created.
+     */
+    private final long revision;
+    
+    /**
+     * Day context was created.
+     */
+    private final long day;
+    
+    /**
+     * Report variables.
+     */
+    private final ReportVariables variables;
+    
+    /**
+     * Constructor for render context.
+     * 
+     * @param document document to report on
+     * @param epic epic to report on, or null for none
+     */
+    public RenderContext(Document document, Epic epic) {
+        this.document = document;
+        this.epic = epic;
+        this.revision = document.getRevision();
+        this.day = Date.nowEpochDay();
+        this.preferences = document.getPreferences();
+        this.variables = new ReportVariables(this);
+    }
+    
+    /**
+     * Returns true if the context still belongs to the application state.
+     * 
+     * @param state application state
+     * 
+     * @return result
+     */
+    public boolean isFor(State state) {
+        return document == state.getOpenDocument()
+                && epic == state.getOpenEpic()
+                && revision == document.getRevision()
+                && day == Date.nowEpochDay();
+    }
+    
+    /**
+     * Getter for document.
+     * 
+     * @return document being reported on
+     */
+    public Document getDocument() {
+        return document;
+    }
+    
+    /**
+     * Getter for epic.
+     * 
+     * @return epic being reported on, or null for none
+     */
+    public Epic getEpic() {
+        return epic;
+    }
+    
+    /**
+     * Getter for preferences.
+     * 
+     * @return document preferences
+     */
+    public Preferences getPreferences() {
+        return preferences;
+    }
+    
+    /**
+     * Getter for status.
+     * 
+     * @return project status
+     */
+    public synchronized StatusSnapshot getStatus() {
+        if (status == null) {
+            status = document.statusSnapshot();
+        }
+        
+        return status;
+    }
+    
+    /**
+     * Getter for epic outlook.
+     * 
+     * @param exclCompletedPoints whether to exclude completed points
+     * 
+     * @return calculated outlook, or null when there is no epic
+     */
+    public synchronized Outlook getOutlook(boolean exclCompletedPoints) {
+        if (epic == null) {
+            return null;
+        }
+        
+        if (exclCompletedPoints == true) {
+            if (outlookExclCompletedPoints == null) {
+                outlookExclCompletedPoints = epic
+                        .getOutlook()
+                        .calculated(preferences, epic, true);
+            }
+            
+            return outlookExclCompletedPoints;
+        }
+        
+        if (outlook == null) {
+            outlook = epic
+                    .getOutlook()
+                    .calculated(preferences, epic, false);
+        }
+        
+        return outlook;
+    }
+    
+    /**
+     * Getter for report variables.
+     * 
+     * @return report variables
+     */
+    public ReportVariables getVariables() {
+        return variables;
+    }
+}
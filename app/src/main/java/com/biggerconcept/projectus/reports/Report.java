@@ -3,6 +3,8 @@ package com.biggerconcept.projectus.reports;
 import com.biggerconcept.sdk.reports.IReport;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.UUID;
 import com.biggerconcept.sdk.reports.elements.IElement;
 import com.biggerconcept.projectus.State;
@@ -124,6 +126,21 @@ public class Report extends com.biggerconcept.sdk.reports.Report implements IRep
        return found != null;
    }
 
+   /**
+    * Returns the names of the variables the report refers to.
+    * 
+    * @return variable names, in order of first reference
+    */
+   public Set<String> referencedVariables() {
+       LinkedHashSet<String> names = new LinkedHashSet<>();
+       
+       for (IElement e : getElements()) {
+           names.addAll(((Element) e).referencedVariables());
+       }
+       
+       return names;
+   }
+
    /**
     * Adds an element to the report.
     * 
@@ -0,0 +1,581 @@
+package com.biggerconcept.projectus.reports;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Report variables resolved on demand.
+ * 
+ * Variables are not worked out until a report element refers to them,
+ * and each is only worked out once, from the render context they belong
+ * to.
+ * 
+ * @author Andrew Bigger
+ */
+public class ReportVariables extends HashMap<String, String> {
+    /**
+     * Variables by name, in the order they are offered to reports.
+     */
+    private static final Map<String, Function<RenderContext, String>> DEFINITIONS =
+            definitions();
+    
+    /**
+     * Render context variables are resolved from.
+     */
+    private final RenderContext context;
+    
+    /**
+     * Returns names of all report variables.
+     * 
+     * @return variable names
+     */
+    public static Set<String> names() {
+        return Collections.unmodifiableSet(DEFINITIONS.keySet());
+    }
+    
+    /**
+     * Constructor for report variables.
+     * 
+     * @param context render context
+     */
+    public ReportVariables(RenderContext context) {
+        super();
+        this.context = context;
+    }
+    
+    /**
+     * Returns the value of a variable, resolving it if needed.
+     * 
+     * @param key variable name
+     * 
+     * @return variable value
+     */
+    @Override
+    public synchronized String get(Object key) {
+        if (!super.containsKey(key) && DEFINITIONS.containsKey(key)) {
+            super.put((String) key, DEFINITIONS.get(key).apply(context));
+        }
+        
+        return super.get(key);
+    }
+    
+    /**
+     * Returns the value of a variable, or a default for unknown names.
+     * 
+     * @param key variable name
+     * @param defaultValue value for unknown names
+     * 
+     * @return variable value
+     */
+    @Override
+    public String getOrDefault(Object key, String defaultValue) {
+        return containsKey(key) ? get(key) : defaultValue;
+    }
+    
+    /**
+     * Returns true if the name is a variable.
+     * 
+     * @param key variable name
+     * 
+     * @return result
+     */
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return super.containsKey(key) || DEFINITIONS.containsKey(key);
+    }
+    
+    /**
+     * Returns the names of all variables without resolving them.
+     * 
+     * @return variable names
+     */
+    @Override
+    public Set<String> keySet() {
+        return names();
+    }
+    
+    /**
+     * Returns all variables, resolving any not yet worked out.
+     * 
+     * @return variables
+     */
+    @Override
+    public synchronized Set<Map.Entry<String, String>> entrySet() {
+        resolveAll();
+        
+        return Collections.unmodifiableSet(super.entrySet());
+    }
+    
+    /**
+     * Returns all values, resolving any not yet worked out.
+     * 
+     * @return values
+     */
+    @Override
+    public synchronized Collection<String> values() {
+        resolveAll();
+        
+        return Collections.unmodifiableCollection(super.values());
+    }
+    
+    /**
+     * Visits all variables, resolving any not yet worked out.
+     * 
+     * @param action action to perform on each variable
+     */
+    @Override
+    public synchronized void forEach(
+            BiConsumer<? super String, ? super String> action
+    ) {
+        resolveAll();
+        
+        super.forEach(action);
+    }
+    
+    /**
+     * Returns the number of variables.
+     * 
+     * @return number of variables
+     */
+    @Override
+    public int size() {
+        return DEFINITIONS.size();
+    }
+    
+    /**
+     * Returns true if there are no variables.
+     * 
+     * @return result
+     */
+    @Override
+    public boolean isEmpty() {
+        return DEFINITIONS.isEmpty();
+    }
+    
+    /**
+     * Resolves every variable not yet worked out.
+     */
+    private void resolveAll() {
+        for (String name : DEFINITIONS.keySet()) {
+            get(name);
+        }
+    }
+    
+    /**
+     * Builds the variable definitions.
+     * 
+     * @return variables by name
+     */
+    private static Map<String, Function<RenderContext, String>> definitions() {
+        LinkedHashMap<String, Function<RenderContext, String>> definitions =
+                new LinkedHashMap<>();
+        
+        definitions.put(
+                "project_name", 
+                Variables::projectName
+        );
+        
+        definitions.put(
+                "project_start_date", 
+                Variables::projectStartDate
+        );
+        
+        definitions.put(
+                "project_end_date", 
+                Variables::projectEndDate
+        );
+        
+        definitions.put(
+                "weeks_elapsed", 
+                Variables::weeksElapsed
+        );
+        
+        definitions.put(
+                "weeks_total", 
+                Variables::weeksTotal
+        );
+        
+        definitions.put(
+                "weeks_remaining", 
+                Variables::weeksRemaining
+        );
+        
+        definitions.put(
+                "sprints_elapsed", 
+                Variables::sprintsElapsed
+        );
+        
+        definitions.put(
+                "sprints_total", 
+                Variables::sprintsTotal
+        );
+        
+        definitions.put(
+                "sprints_remaining", 
+                Variables::sprintsRemaining
+        );
+        
+        definitions.put(
+                "points_completed", 
+                Variables::pointsCompleted
+        );
+        
+        definitions.put(
+                "points_total", 
+                Variables::pointsTotal
+        );
+        
+        definitions.put(
+                "points_remaining", 
+                Variables::pointsRemaining
+        );
+        
+        definitions.put(
+                "velocity", 
+                Variables::velocity
+        );
+        
+        definitions.put(
+                "tracking_status", 
+                Variables::trackingStatus
+        );
+        
+        definitions.put(
+                "committed_points", 
+                Variables::committedPoints
+        );
+        
+        definitions.put(
+                "available_points", 
+                Variables::availablePoints
+        );
+        
+        definitions.put(
+                "xs_task_size", 
+                Variables::xsTaskSize
+        );
+        
+        definitions.put(
+                "s_task_size", 
+                Variables::sTaskSize
+        );
+        
+        definitions.put(
+                "m_task_size", 
+                Variables::mTaskSize
+        );
+        
+        definitions.put(
+                "l_task_size", 
+                Variables::lTaskSize
+        );
+        
+        definitions.put(
+                "xl_task_size", 
+                Variables::xlTaskSize
+        );
+        
+        definitions.put(
+                "sprint_length", 
+                Variables::sprintLength
+        );
+        
+        definitions.put(
+                "estimate_buffer", 
+                Variables::estimateBuffer
+        );
+        
+        definitions.put(
+                "epic_count", 
+                Variables::epicCount
+        );
+        
+        definitions.put(
+                "selected_epic_name", 
+                Variables::selectedEpicName
+        );
+        
+        definitions.put(
+                "selected_epic_identifier", 
+                Variables::selectedEpicIdentifier
+        );
+        
+        definitions.put(
+                "selected_epic_sized_task_count", 
+                Variables::selectedEpicSizedTaskCount
+        );
+        
+        definitions.put(
+                "selected_epic_completed_task_count", 
+                Variables::selectedEpicCompleteTaskCount
+        );
+        
+        definitions.put(
+                "selected_epic_task_count", 
+                Variables::selectedEpicTaskCount
+        );
+        
+        definitions.put(
+                "selected_epic_total_points", 
+                Variables::selectedEpicTotalPoints
+        );
+        
+        definitions.put(
+                "selected_epic_complete_points", 
+                Variables::selectedEpicCompletePoints
+        );
+        
+        definitions.put(
+                "selected_epic_estimate_points", 
+                Variables::selectedEpicEstimatePoints
+        );
+        
+        definitions.put(
+                "selected_epic_status", 
+                Variables::selectedEpicStatus
+        );
+        
+        definitions.put(
+                "selected_epic_risk_count", 
+                Variables::selectedEpicRiskCount
+        );
+        
+        definitions.put(
+                "selected_epic_story_count", 
+                Variables::selectedEpicStoryCount
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_buffer", 
+                Variables::selectedEpicOutlookBuffer
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_buffer_excl_completed_points", 
+                Variables::selectedEpicOutlookBufferExclCompletedPoints
+        );
+        
+        definitions.put(
+                "selected_epic_estimate_points_with_buffer", 
+                Variables::selectedEpicOutlookEstimatePointsWithBuffer
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_three_points_per_sprint", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, 3, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_three_sprints", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, 3, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_three_weeks", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, 3, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_two_points_per_sprint", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, 2, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_two_sprints", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, 2, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_two_weeks", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, 2, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_one_points_per_sprint", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, 1, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_one_sprints", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, 1, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_one_weeks", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, 1, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_points_per_sprint", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, 0, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_sprints", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, 0, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_weeks", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, 0, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_one_points_per_sprint", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, -1, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_one_sprints", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, -1, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_one_weeks", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, -1, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_two_points_per_sprint", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, -2, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_two_sprints", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, -2, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_two_weeks", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, -2, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_three_points_per_sprint", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, -3, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_three_sprints", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, -3, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_three_weeks", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, -3, false)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_three_points_per_sprint_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, 3, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_three_sprints_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, 3, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_three_weeks_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, 3, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_two_points_per_sprint_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, 2, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_two_sprints_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, 2, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_two_weeks_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, 2, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_one_points_per_sprint_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, 1, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_one_sprints_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, 1, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_plus_one_weeks_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, 1, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_points_per_sprint_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, 0, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_sprints_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, 0, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_weeks_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, 0, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_one_points_per_sprint_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, -1, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_one_sprints_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, -1, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_one_weeks_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, -1, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_two_points_per_sprint_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, -2, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_two_sprints_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, -2, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_two_weeks_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, -2, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_three_points_per_sprint_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookPointsPerSprint(c, -3, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_three_sprints_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookSprints(c, -3, true)
+        );
+        
+        definitions.put(
+                "selected_epic_outlook_minus_three_weeks_excl_completed_points", 
+                (c) -> Variables.selectedEpicOutlookWeeks(c, -3, true)
+        );
+        
+        return definitions;
+    }
+}
@@ -0,0 +1,193 @@
+package com.biggerconcept.projectus.reports;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Element content parsed into literal text and variable references.
+ * 
+ * Content is parsed once, and can then be rendered with any set of
+ * variables in a single pass. Only the variables the content refers to
+ * are read when rendering.
+ * 
+ * The variable syntax belongs to the report compiler. To parse content,
+ * it is compiled once with every variable set to a marker, and the
+ * markers found in the result are the variable references.
+ * 
+ * @author Andrew Bigger
+ */
+public final class Template {
+    /**
+     * Report compiler.
+     */
+    interface Compiler {
+        String compile(String text, HashMap<String, String> vars);
+    }
+    
+    /**
+     * Character that surrounds markers.
+     * 
+     * This is from the unicode private use area, so is not expected in
+     * element content.
+     */
+    private static final char MARK = '\uE000';
+    
+    /**
+     * Content the template was parsed from.
+     */
+    private final String source;
+    
+    /**
+     * Literal text, before, between and after variable references.
+     */
+    private final String[] literals;
+    
+    /**
+     * Names of referenced variables, in order of reference.
+     */
+    private final String[] references;
+    
+    /**
+     * Names of referenced variables.
+     */
+    private final Set<String> names;
+    
+    /**
+     * Parses content into a template.
+     * 
+     * Content that contains the marker character, or that the compiler
+     * changes in other ways than substituting variables, can not be
+     * parsed, and should be compiled as it is rendered.
+     * 
+     * @param source content to parse
+     * @param variables names of variables
+     * @param compiler report compiler
+     * 
+     * @return template, or null when the content can not be parsed
+     */
+    public static Template parse(
+            String source,
+            Set<String> variables,
+            Compiler compiler
+    ) {
+        if (source.indexOf(MARK) >= 0) {
+            return null;
+        }
+        
+        String[] byIndex = variables.toArray(new String[0]);
+        HashMap<String, String> markers = new HashMap<>();
+        
+        for (int i = 0; i < byIndex.length; i++) {
+            markers.put(byIndex[i], MARK + String.valueOf(i) + MARK);
+        }
+        
+        String compiled = compiler.compile(source, markers);
+        String[] parts = compiled.split(String.valueOf(MARK), -1);
+        
+        if (parts.length % 2 == 0) {
+            return null;
+        }
+        
+        String[] literals = new String[parts.length / 2 + 1];
+        String[] references = new String[parts.length / 2];
+        
+        for (int i = 0; i < parts.length; i++) {
+            if (i % 2 == 0) {
+                literals[i / 2] = parts[i];
+            } else {
+                int index = index(parts[i]);
+                
+                if (index < 0 || index >= byIndex.length) {
+                    return null;
+                }
+                
+                references[i / 2] = byIndex[index];
+            }
+        }
+        
+        return new Template(source, literals, references);
+    }
+    
+    /**
+     * Reads the variable index from a marker.
+     * 
+     * @param marker text between marker characters
+     * 
+     * @return variable index, or -1 when the marker is not an index
+     */
+    private static int index(String marker) {
+        try {
+            return Integer.parseInt(marker);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Constructor for template.
+     * 
+     * @param source content the template was parsed from
+     * @param literals literal text around variable references
+     * @param references names of referenced variables
+     */
+    private Template(String source, String[] literals, String[] references) {
+        this.source = source;
+        this.literals = literals;
+        this.references = references;
+        
+        LinkedHashSet<String> referenced = new LinkedHashSet<>();
+        Collections.addAll(referenced, references);
+        
+        this.names = Collections.unmodifiableSet(referenced);
+    }
+    
+    /**
+     * Returns true if the template was parsed from the given content.
+     * 
+     * @param value element content
+     * 
+     * @return result
+     */
+    public boolean isFor(String value) {
+        return source.equals(value);
+    }
+    
+    /**
+     * Getter for names of referenced variables.
+     * 
+     * @return variable names
+     */
+    public Set<String> getNames() {
+        return names;
+    }
+    
+    /**
+     * Renders the template.
+     * 
+     * Variables without a value are rendered as empty text.
+     * 
+     * @param vars variables to render with
+     * 
+     * @return rendered content
+     */
+    public String render(Map<String, String> vars) {
+        StringBuilder out = new StringBuilder(source.length() + 16);
+        
+        out.append(literals[0]);
+        
+        for (int i = 0; i < references.length; i++) {
+            String value = vars.get(references[i]);
+            
+            if (value != null) {
+                out.append(value);
+            }
+            
+            out.append(literals[i + 1]);
+        }
+        
+        return out.toString();
+    }
+}
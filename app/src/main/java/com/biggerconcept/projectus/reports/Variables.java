@@ -1,10 +1,7 @@
 package com.biggerconcept.projectus.reports;
 
-import com.biggerconcept.projectus.State;
-import com.biggerconcept.projectus.domain.Epic;
 import com.biggerconcept.projectus.domain.Outlook;
-import com.biggerconcept.projectus.domain.Preferences;
-import com.biggerconcept.projectus.domain.Status;
+import com.biggerconcept.projectus.domain.StatusSnapshot;
 import com.biggerconcept.projectus.domain.Status.Tracking;
 import com.biggerconcept.projectus.helpers.Date;
 import java.time.LocalDate;
@@ -19,13 +16,13 @@ public class Variables {
     /**
      * Returns project name as a title
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return project name
      */
-    public static String projectName(State state) {
+    public static String projectName(RenderContext context) {
         try {
-            return state.getOpenDocument().getTitle();
+            return context.getDocument().getTitle();
         } catch (Exception ex) {
             return "";
         }
@@ -34,13 +31,13 @@ public class Variables {
     /**
      * Returns project start date as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return start date
      */
-    public static String projectStartDate(State state) {
+    public static String projectStartDate(RenderContext context) {
         try {
-            LocalDate start = Date.fromEpoch(state.getOpenDocument().getStart());
+            LocalDate start = Date.fromEpoch(context.getDocument().getStart());
             return start.toString();
         } catch (Exception ex) {
             return "";
@@ -50,13 +47,13 @@ public class Variables {
     /**
      * Returns project end date as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return end date
      */
-    public static String projectEndDate(State state) {
+    public static String projectEndDate(RenderContext context) {
         try {
-            LocalDate start = Date.fromEpoch(state.getOpenDocument().getStart());
+            LocalDate start = Date.fromEpoch(context.getDocument().getStart());
             return start.toString();
         } catch (Exception ex) {
             return "";
@@ -66,13 +63,13 @@ public class Variables {
     /**
      * Returns weeks elapsed as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return weeks elapsed
      */
-    public static String weeksElapsed(State state) {
+    public static String weeksElapsed(RenderContext context) {
         try {
-            Status status = state.getOpenDocument().status();
+            StatusSnapshot status = context.getStatus();
             
             if (status.hasStarted() == true) {
                 return String.valueOf(status.weeksElapsed());
@@ -87,13 +84,13 @@ public class Variables {
     /**
      * Returns total number of weeks as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return total weeks
      */
-    public static String weeksTotal(State state) {
+    public static String weeksTotal(RenderContext context) {
         try {
-            Status status = state.getOpenDocument().status();
+            StatusSnapshot status = context.getStatus();
             
             if (status.hasStarted() == true) {
                 return String.valueOf(status.totalWeeks());
@@ -108,13 +105,13 @@ public class Variables {
     /**
      * Returns number of weeks remaining as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return weeks remaining
      */
-    public static String weeksRemaining(State state) {
+    public static String weeksRemaining(RenderContext context) {
         try {
-            Status status = state.getOpenDocument().status();
+            StatusSnapshot status = context.getStatus();
             
             long remaining = status.totalWeeks() - status.weeksElapsed();
             
@@ -127,13 +124,13 @@ public class Variables {
     /**
      * Returns sprints elapsed as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return sprints elapsed
      */
-    public static String sprintsElapsed(State state) {
+    public static String sprintsElapsed(RenderContext context) {
         try {
-            Status status = state.getOpenDocument().status();
+            StatusSnapshot status = context.getStatus();
             
             if (status.hasStarted() == true) {
                 return String.valueOf(status.sprintsElapsed());
@@ -148,13 +145,13 @@ public class Variables {
     /**
      * Returns total number of sprints as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return total sprints
      */
-    public static String sprintsTotal(State state) {
+    public static String sprintsTotal(RenderContext context) {
         try {
-            Status status = state.getOpenDocument().status();
+            StatusSnapshot status = context.getStatus();
             
             if (status.hasStarted() == true) {
                 return String.valueOf(status.totalSprints());
@@ -169,13 +166,13 @@ public class Variables {
     /**
      * Returns number of sprints remaining as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return sprints remaining
      */
-    public static String sprintsRemaining(State state) {
+    public static String sprintsRemaining(RenderContext context) {
         try {
-            Status status = state.getOpenDocument().status();
+            StatusSnapshot status = context.getStatus();
             
             long remaining = status.totalSprints() - status.sprintsElapsed();
             
@@ -188,13 +185,13 @@ public class Variables {
     /**
      * Returns points completed as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return points elapsed
      */
-    public static String pointsCompleted(State state) {
+    public static String pointsCompleted(RenderContext context) {
         try {
-            Status status = state.getOpenDocument().status();
+            StatusSnapshot status = context.getStatus();
             
             if (status.hasStarted() == true) {
                 return String.valueOf(status.completedPoints());
@@ -209,13 +206,13 @@ public class Variables {
     /**
      * Returns total number of points as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return total points
      */
-    public static String pointsTotal(State state) {
+    public static String pointsTotal(RenderContext context) {
         try {
-            Status status = state.getOpenDocument().status();
+            StatusSnapshot status = context.getStatus();
             
             if (status.hasStarted() == true) {
                 return String.valueOf(status.totalPoints());
@@ -230,13 +227,13 @@ public class Variables {
     /**
      * Returns number of points remaining as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return points remaining
      */
-    public static String pointsRemaining(State state) {
+    public static String pointsRemaining(RenderContext context) {
         try {
-            Status status = state.getOpenDocument().status();
+            StatusSnapshot status = context.getStatus();
             
             long remaining = status.completedPoints() - status.totalPoints();
             
@@ -249,13 +246,13 @@ public class Variables {
     /**
      * Returns average number of points per sprint as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return points remaining
      */
-    public static String velocity(State state) {
+    public static String velocity(RenderContext context) {
         try {
-            Status status = state.getOpenDocument().status();
+            StatusSnapshot status = context.getStatus();
             
             return String.valueOf(status.pointsPerSprint());
         } catch (Exception ex) {
@@ -266,12 +263,12 @@ public class Variables {
     /**
      * Returns project tracking status as a variable
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return tracking status
      */
-    public static String trackingStatus(State state) {
-        Status status = state.getOpenDocument().status();
+    public static String trackingStatus(RenderContext context) {
+        StatusSnapshot status = context.getStatus();
             
             if (status.hasStarted() == true) {
                 return String.valueOf(status.summary());
@@ -283,13 +280,13 @@ public class Variables {
     /**
      * Returns points committed as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return points committed
      */
-    public static String committedPoints(State state) {
+    public static String committedPoints(RenderContext context) {
         try {
-            Status status = state.getOpenDocument().status();
+            StatusSnapshot status = context.getStatus();
             
             if (status.hasStarted() == true) {
                 return String.valueOf(status.totalPoints());
@@ -304,13 +301,13 @@ public class Variables {
     /**
      * Returns total number of available points as a variable.
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return total points
      */
-    public static String availablePoints(State state) {
+    public static String availablePoints(RenderContext context) {
         try {
-            Status status = state.getOpenDocument().status();
+            StatusSnapshot status = context.getStatus();
             
             if (status.hasStarted() == true) {
                 return String.valueOf(status.availablePoints());
@@ -325,15 +322,14 @@ public class Variables {
     /**
      * Returns start epic number as a variable
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return start epic number
      */
-    public static String startEpicNumber(State state) {
+    public static String startEpicNumber(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                            .getOpenDocument()
+                    context
                             .getPreferences()
                             .getEpicStartNumber()
             );
@@ -345,15 +341,14 @@ public class Variables {
     /**
      * Returns extra small task size number as a variable
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return extra small task size
      */
-    public static String xsTaskSize(State state) {
+    public static String xsTaskSize(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                            .getOpenDocument()
+                    context
                             .getPreferences()
                             .getExtraSmallTaskSize()
             );
@@ -365,15 +360,14 @@ public class Variables {
     /**
      * Returns small task size number as a variable
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return small task size
      */
-    public static String sTaskSize(State state) {
+    public static String sTaskSize(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                            .getOpenDocument()
+                    context
                             .getPreferences()
                             .getSmallTaskSize()
             );
@@ -385,15 +379,14 @@ public class Variables {
     /**
      * Returns medium task size number as a variable
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return medium task size
      */
-    public static String mTaskSize(State state) {
+    public static String mTaskSize(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                            .getOpenDocument()
+                    context
                             .getPreferences()
                             .getMediumTaskSize()
             );
@@ -405,15 +398,14 @@ public class Variables {
     /**
      * Returns large task size number as a variable
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return large task size
      */
-    public static String lTaskSize(State state) {
+    public static String lTaskSize(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                            .getOpenDocument()
+                    context
                             .getPreferences()
                             .getLargeTaskSize()
             );
@@ -425,15 +417,14 @@ public class Variables {
     /**
      * Returns extra large task size number as a variable
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return extra large task size
      */
-    public static String xlTaskSize(State state) {
+    public static String xlTaskSize(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                            .getOpenDocument()
+                    context
                             .getPreferences()
                             .getExtraLargeTaskSize()
             );
@@ -445,15 +436,14 @@ public class Variables {
     /**
      * Returns sprint length number as a variable
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return sprint length
      */
-    public static String sprintLength(State state) {
+    public static String sprintLength(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                            .getOpenDocument()
+                    context
                             .getPreferences()
                             .getSprintLength()
             );
@@ -465,15 +455,14 @@ public class Variables {
     /**
      * Returns estimate buffer as a variable
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return estimate buffer
      */
-    public static String estimateBuffer(State state) {
+    public static String estimateBuffer(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                            .getOpenDocument()
+                    context
                             .getPreferences()
                             .getSprintLength()
             );
@@ -485,15 +474,15 @@ public class Variables {
     /**
      * Returns epic count as a variable
      * 
-     * @param state application state
+     * @param context render context
      * 
      * @return epic count
      */
-    public static String epicCount(State state) {
+    public static String epicCount(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                        .getOpenDocument()
+                    context
+                        .getDocument()
                         .getEpics()
                         .size()
             );
@@ -505,13 +494,13 @@ public class Variables {
     /**
      * Returns selected epic name as string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic name
      */
-    public static String selectedEpicName(State state) {
+    public static String selectedEpicName(RenderContext context) {
         try {
-            return state.getOpenEpic().getName();
+            return context.getEpic().getName();
         } catch (Exception ex) {
             return "";
         }
@@ -520,13 +509,13 @@ public class Variables {
     /**
      * Returns selected epic identifier as string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic identifier
      */
-    public static String selectedEpicIdentifier(State state) {
+    public static String selectedEpicIdentifier(RenderContext context) {
         try {
-            return String.valueOf(state.getOpenEpic().getIdentifier());
+            return String.valueOf(context.getEpic().getIdentifier());
         } catch (Exception ex) {
             return "";
         }
@@ -535,15 +524,15 @@ public class Variables {
     /**
      * Returns selected epic sized card count as string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic sized card count
      */
-    public static String selectedEpicSizedTaskCount(State state) {
+    public static String selectedEpicSizedTaskCount(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                        .getOpenEpic()
+                    context
+                        .getEpic()
                         .calculateSizedCount()
             );
         } catch (Exception ex) {
@@ -554,15 +543,15 @@ public class Variables {
     /**
      * Returns selected epic task count as string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic task count
      */
-    public static String selectedEpicTaskCount(State state) {
+    public static String selectedEpicTaskCount(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                        .getOpenEpic()
+                    context
+                        .getEpic()
                         .getTasks()
                         .size()
             );
@@ -574,15 +563,15 @@ public class Variables {
     /**
      * Returns selected epic complete task count as string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic complete task count
      */
-    public static String selectedEpicCompleteTaskCount(State state) {
+    public static String selectedEpicCompleteTaskCount(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                        .getOpenEpic()
+                    context
+                        .getEpic()
                         .calculateCompleteCount()
             );
         } catch (Exception ex) {
@@ -593,16 +582,16 @@ public class Variables {
     /**
      * Returns selected epic total points as string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic total points count
      */
-    public static String selectedEpicTotalPoints(State state) {
+    public static String selectedEpicTotalPoints(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                        .getOpenEpic()
-                        .getSize(state.getOpenDocument().getPreferences())
+                    context
+                        .getEpic()
+                        .getSize(context.getPreferences())
             );
         } catch (Exception ex) {
             return "";
@@ -612,17 +601,17 @@ public class Variables {
     /**
      * Returns selected epic total points as string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic total points count
      */
-    public static String selectedEpicCompletePoints(State state) {
+    public static String selectedEpicCompletePoints(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                        .getOpenEpic()
+                    context
+                        .getEpic()
                         .calculateCompletePointCount(
-                                state.getOpenDocument().getPreferences()
+                                context.getPreferences()
                         )
             );
         } catch (Exception ex) {
@@ -633,16 +622,16 @@ public class Variables {
     /**
      * Returns selected epic estimate points as string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic estimate points count
      */
-    public static String selectedEpicEstimatePoints(State state) {
+    public static String selectedEpicEstimatePoints(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                        .getOpenEpic()
-                        .getSize(state.getOpenDocument().getPreferences())
+                    context
+                        .getEpic()
+                        .getSize(context.getPreferences())
             );
         } catch (Exception ex) {
             return "";
@@ -652,15 +641,15 @@ public class Variables {
     /**
      * Returns selected epic status as string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic status
      */
-    public static String selectedEpicStatus(State state) {
+    public static String selectedEpicStatus(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                        .getOpenEpic()
+                    context
+                        .getEpic()
                         .calculateStatus()
             );
         } catch (Exception ex) {
@@ -671,15 +660,15 @@ public class Variables {
     /**
      * Returns selected epic risk count as string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic risk count
      */
-    public static String selectedEpicRiskCount(State state) {
+    public static String selectedEpicRiskCount(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                        .getOpenEpic()
+                    context
+                        .getEpic()
                         .getRisks()
                         .size()
             );
@@ -691,15 +680,15 @@ public class Variables {
     /**
      * Returns selected epic risk count as string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic story count
      */
-    public static String selectedEpicStoryCount(State state) {
+    public static String selectedEpicStoryCount(RenderContext context) {
         try {
             return String.valueOf(
-                    state
-                        .getOpenEpic()
+                    context
+                        .getEpic()
                         .getStories()
                         .size()
             );
@@ -711,20 +700,13 @@ public class Variables {
     /**
      * Returns selected epic outlook buffer as string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic outlook buffer points
      */
-    public static String selectedEpicOutlookBuffer(State state) {
+    public static String selectedEpicOutlookBuffer(RenderContext context) {
         try {
-            Preferences prefs = state.getOpenDocument().getPreferences();
-            Epic openEpic = state.getOpenEpic();
-            
-            Outlook outlook = state
-                        .getOpenEpic()
-                        .getOutlook();
-            
-            outlook.calculate(prefs, openEpic, false);
+            Outlook outlook = context.getOutlook(false);
             
             return String.valueOf(outlook.getBuffer());
         } catch (Exception ex) {
@@ -736,22 +718,15 @@ public class Variables {
      * Returns selected epic outlook buffer excluding completed points as 
      * string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic outlook buffer points
      */
     public static String selectedEpicOutlookBufferExclCompletedPoints(
-            State state
+            RenderContext context
     ) {
         try {
-            Preferences prefs = state.getOpenDocument().getPreferences();
-            Epic openEpic = state.getOpenEpic();
-            
-            Outlook outlook = state
-                        .getOpenEpic()
-                        .getOutlook();
-            
-            outlook.calculate(prefs, openEpic, true);
+            Outlook outlook = context.getOutlook(true);
             
             return String.valueOf(outlook.getBuffer());
         } catch (Exception ex) {
@@ -763,22 +738,15 @@ public class Variables {
      * Returns selected epic outlook estimated points including buffer points as 
      * string for use as a variable
      * 
-     * @param state application statue
+     * @param context render context
      * 
      * @return selected epic outlook buffer points
      */
     public static String selectedEpicOutlookEstimatePointsWithBuffer(
-            State state
+            RenderContext context
     ) {
         try {
-            Preferences prefs = state.getOpenDocument().getPreferences();
-            Epic openEpic = state.getOpenEpic();
-            
-            Outlook outlook = state
-                        .getOpenEpic()
-                        .getOutlook();
-            
-            outlook.calculate(prefs, openEpic, true);
+            Outlook outlook = context.getOutlook(true);
             
             return String.valueOf(outlook.getEstimateWithBuffer());
         } catch (Exception ex) {
@@ -789,26 +757,19 @@ public class Variables {
     /**
      * Returns points per sprint for outlook projection.
      * 
-     * @param state application statue
+     * @param context render context
      * @param deviation projection deviation
      * @param exclCompletedPoints exclude completed points
      * 
      * @return points per sprint for given deviation
      */
     public static String selectedEpicOutlookPointsPerSprint(
-            State state,
+            RenderContext context,
             int deviation,
             boolean exclCompletedPoints
     ) {
         try {
-            Preferences prefs = state.getOpenDocument().getPreferences();
-            Epic openEpic = state.getOpenEpic();
-            
-            Outlook outlook = state
-                        .getOpenEpic()
-                        .getOutlook();
-            
-            outlook.calculate(prefs, openEpic, exclCompletedPoints);
+            Outlook outlook = context.getOutlook(exclCompletedPoints);
             
             return String.valueOf(
                     outlook.findProjection(deviation).getPointsPerSprint()
@@ -821,26 +782,19 @@ public class Variables {
     /**
      * Returns sprints for outlook projection.
      * 
-     * @param state application statue
+     * @param context render context
      * @param deviation projection deviation
      * @param exclCompletedPoints exclude completed points
      * 
      * @return sprints for given deviation
      */
     public static String selectedEpicOutlookSprints(
-            State state,
+            RenderContext context,
             int deviation,
             boolean exclCompletedPoints
     ) {
         try {
-            Preferences prefs = state.getOpenDocument().getPreferences();
-            Epic openEpic = state.getOpenEpic();
-            
-            Outlook outlook = state
-                        .getOpenEpic()
-                        .getOutlook();
-            
-            outlook.calculate(prefs, openEpic, exclCompletedPoints);
+            Outlook outlook = context.getOutlook(exclCompletedPoints);
             
             return String.valueOf(
                     outlook.findProjection(deviation).getSprints()
@@ -853,26 +807,19 @@ public class Variables {
     /**
      * Returns weeks for outlook projection.
      * 
-     * @param state application statue
+     * @param context render context
      * @param deviation projection deviation
      * @param exclCompletedPoints exclude completed points
      * 
      * @return sprints for given deviation
      */
     public static String selectedEpicOutlookWeeks(
-            State state,
+            RenderContext context,
             int deviation,
             boolean exclCompletedPoints
     ) {
         try {
-            Preferences prefs = state.getOpenDocument().getPreferences();
-            Epic openEpic = state.getOpenEpic();
-            
-            Outlook outlook = state
-                        .getOpenEpic()
-                        .getOutlook();
-            
-            outlook.calculate(prefs, openEpic, exclCompletedPoints);
+            Outlook outlook = context.getOutlook(exclCompletedPoints);
             
             return String.valueOf(
                     outlook.findProjection(deviation).getWeeks()
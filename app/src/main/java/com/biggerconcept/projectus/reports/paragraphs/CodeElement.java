@@ -49,8 +49,10 @@ public class CodeElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
+        String code = render(getArgs(), vars);
+        
         ArrayList<String> lines = new ArrayList();
-        lines.addAll(Arrays.asList(compile(getArgs(), vars).split("\n")));
+        lines.addAll(Arrays.asList(code.split("\n")));
         
         document.code(lines);
     }
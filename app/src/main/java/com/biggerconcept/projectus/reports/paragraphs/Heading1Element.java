@@ -46,7 +46,7 @@ public class Heading1Element extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
-        document.h1(compile(getArgs(), vars));
+        document.h1(render(getArgs(), vars));
     }
     
     /**
@@ -46,7 +46,7 @@ public class Heading2Element extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
-        document.h2(compile(getArgs(), vars));
+        document.h2(render(getArgs(), vars));
     }
     
     /**
@@ -46,7 +46,7 @@ public class Heading3Element extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
-        document.h3(compile(getArgs(), vars));
+        document.h3(render(getArgs(), vars));
     }
     
     /**
@@ -46,7 +46,7 @@ public class Heading4Element extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
-        document.h4(compile(getArgs(), vars));
+        document.h4(render(getArgs(), vars));
     }
     
     /**
@@ -47,7 +47,7 @@ public class MarkdownElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
-        document.md(compile(getArgs(), vars));
+        document.md(render(getArgs(), vars));
     }
     
     /**
@@ -47,7 +47,7 @@ public class ParagraphElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
-        document.p(compile(getArgs(), vars));
+        document.p(render(getArgs(), vars));
     }
     
     /**
@@ -46,7 +46,7 @@ public class StrongParagraphElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
-        document.strong(compile(getArgs(), vars));
+        document.strong(render(getArgs(), vars));
     }
     
     /**
@@ -46,7 +46,7 @@ public class SubtitleParagraphElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
-        document.subtitle(compile(getArgs().toString(), vars));
+        document.subtitle(render(getArgs().toString(), vars));
     }
     
     /**
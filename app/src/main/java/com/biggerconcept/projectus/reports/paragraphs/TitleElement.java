@@ -46,7 +46,7 @@ public class TitleElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
-        document.title(compile(getArgs(), vars));
+        document.title(render(getArgs(), vars));
     }
     
     /**
@@ -44,11 +44,11 @@ public class EpicsTableElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
-         ArrayList<Epic> epics = getDocument().getEpics();
+         ArrayList<Epic> epics = getRenderContext().getDocument().getEpics();
         
         document.table(
                 headers(getState().bundle()), 
-                body(getState().getOpenDocument().getPreferences(), epics)
+                body(getRenderContext().getPreferences(), epics)
         );
     }
     
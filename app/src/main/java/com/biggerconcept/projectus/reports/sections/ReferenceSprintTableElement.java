@@ -93,7 +93,7 @@ public class ReferenceSprintTableElement extends Element {
         ArrayList<ArrayList<String>> rows = new ArrayList();
         
         try {
-            Preferences prefs = getState().getOpenDocument().getPreferences();
+            Preferences prefs = getRenderContext().getPreferences();
 
             rows.add(row(prefs.getRefSprintOne()));
             rows.add(row(prefs.getRefSprintTwo()));
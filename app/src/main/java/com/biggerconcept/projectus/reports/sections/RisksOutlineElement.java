@@ -4,7 +4,8 @@ import com.biggerconcept.sdk.serializers.documents.Doc;
 import com.biggerconcept.projectus.State;
 import com.biggerconcept.projectus.domain.Document;
 import com.biggerconcept.projectus.domain.Risk;
-import com.biggerconcept.projectus.reports.Element;
+import com.biggerconcept.projectus.reports.Fragment;
+import com.biggerconcept.projectus.reports.FragmentElement;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -16,7 +17,7 @@ import javafx.scene.Node;
  * 
  * @author Andrew Bigger
  */
-public class RisksOutlineElement extends Element {
+public class RisksOutlineElement extends FragmentElement {
     /**
      * Default constructor
      */
@@ -44,17 +45,30 @@ public class RisksOutlineElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
+        insertFragment(document);
+    }
+    
+    /**
+     * Prepares risks outline.
+     * 
+     * @return prepared content
+     */
+    @Override
+    public Fragment prepare() {
+        Fragment fragment = new Fragment();
+        
         try {
-            Document openDocument = getState().getOpenDocument();
+            Document openDocument = getRenderContext().getDocument();
 
             ArrayList<Risk> risks = 
                     openDocument.getRisks();
             
-            insertOutline(document, getState().bundle(), risks);
+            insertOutline(fragment, getState().bundle(), risks);
         } catch (Exception ex) {
             // skip story documentation when unable to construct timeline
         }
         
+        return fragment;
     }
     
     /**
@@ -77,7 +91,7 @@ public class RisksOutlineElement extends Element {
      * @param risks risks to outline
      */
     public static void insertOutline(
-            Doc doc,
+            Fragment doc,
             ResourceBundle bundle,
             ArrayList<Risk> risks
     ) {
@@ -43,7 +43,7 @@ public class RisksTableElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
-         ArrayList<Risk> risks = getDocument().getRisks();
+         ArrayList<Risk> risks = getRenderContext().getDocument().getRisks();
         
         document.table(
                 headers(getState().bundle()), 
@@ -3,7 +3,6 @@ package com.biggerconcept.projectus.reports.sections;
 import com.biggerconcept.sdk.serializers.documents.Doc;
 import com.biggerconcept.sdk.doctree.domain.Node;
 import com.biggerconcept.projectus.State;
-import com.biggerconcept.projectus.domain.Epic;
 import com.biggerconcept.projectus.domain.Outlook;
 import com.biggerconcept.projectus.domain.Preferences;
 import com.biggerconcept.projectus.domain.Projection;
@@ -57,11 +56,8 @@ public class SelectedEpicOutlookTableElement extends Element {
             throws IOException {
         try {
             ResourceBundle bundle = getState().bundle();
-            Preferences prefs = getState().getOpenDocument().getPreferences();
-            Epic openEpic = getState().getOpenEpic();
-            
-            Outlook outlook = openEpic.getOutlook();
-            outlook.calculate(prefs, openEpic, false);
+            Preferences prefs = getRenderContext().getPreferences();
+            Outlook outlook = getRenderContext().getOutlook(false);
             
             insertOutlookTable(document, bundle, prefs, outlook);
         } catch (Exception ex) {
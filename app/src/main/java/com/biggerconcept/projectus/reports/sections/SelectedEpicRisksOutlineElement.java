@@ -5,7 +5,8 @@ import com.biggerconcept.sdk.doctree.domain.Node;
 import com.biggerconcept.projectus.State;
 import com.biggerconcept.projectus.domain.Epic;
 import com.biggerconcept.projectus.domain.Risk;
-import com.biggerconcept.projectus.reports.Element;
+import com.biggerconcept.projectus.reports.Fragment;
+import com.biggerconcept.projectus.reports.FragmentElement;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -15,7 +16,7 @@ import java.util.HashMap;
  * 
  * @author Andrew Bigger
  */
-public class SelectedEpicRisksOutlineElement extends Element {
+public class SelectedEpicRisksOutlineElement extends FragmentElement {
     /**
      * Default constructor
      */
@@ -52,14 +53,26 @@ public class SelectedEpicRisksOutlineElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
+        insertFragment(document);
+    }
+    
+    /**
+     * Prepares selected epic risks outline.
+     * 
+     * @return prepared content
+     */
+    @Override
+    public Fragment prepare() {
+        Fragment fragment = new Fragment();
+        
         try {
-            Epic openEpic = getState().getOpenEpic();
+            Epic openEpic = getRenderContext().getEpic();
 
             ArrayList<Risk> risks = 
                     openEpic.getDocumentRisks();
             
             RisksOutlineElement.insertOutline(
-                    document, 
+                    fragment, 
                     getState().bundle(), 
                     risks
             );
@@ -67,6 +80,7 @@ public class SelectedEpicRisksOutlineElement extends Element {
             // skip story documentation when unable to access selected epic
         }
         
+        return fragment;
     }
 
 }
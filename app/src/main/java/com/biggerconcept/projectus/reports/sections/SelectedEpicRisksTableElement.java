@@ -43,8 +43,8 @@ public class SelectedEpicRisksTableElement extends Element {
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
          try {
-            ArrayList<Risk> risks = getState()
-                    .getOpenEpic()
+            ArrayList<Risk> risks = getRenderContext()
+                    .getEpic()
                     .getDocumentRisks();
 
             document.table(
@@ -42,7 +42,7 @@ public class SelectedEpicScopeOutlineElement extends Element {
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
         try {
-            Epic selectedEpic = getState().getOpenEpic();
+            Epic selectedEpic = getRenderContext().getEpic();
             
             document.h3(
                     getState()
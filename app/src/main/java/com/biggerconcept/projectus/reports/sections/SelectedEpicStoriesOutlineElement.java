@@ -5,7 +5,8 @@ import com.biggerconcept.sdk.doctree.domain.Node;
 import com.biggerconcept.projectus.State;
 import com.biggerconcept.projectus.domain.Epic;
 import com.biggerconcept.projectus.domain.Story;
-import com.biggerconcept.projectus.reports.Element;
+import com.biggerconcept.projectus.reports.Fragment;
+import com.biggerconcept.projectus.reports.FragmentElement;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -15,7 +16,7 @@ import java.util.HashMap;
  * 
  * @author Andrew Bigger
  */
-public class SelectedEpicStoriesOutlineElement extends Element {
+public class SelectedEpicStoriesOutlineElement extends FragmentElement {
     /**
      * Default constructor
      */
@@ -52,14 +53,26 @@ public class SelectedEpicStoriesOutlineElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
+        insertFragment(document);
+    }
+    
+    /**
+     * Prepares selected epic stories outline.
+     * 
+     * @return prepared content
+     */
+    @Override
+    public Fragment prepare() {
+        Fragment fragment = new Fragment();
+        
         try {
-            Epic openEpic = getState().getOpenEpic();
+            Epic openEpic = getRenderContext().getEpic();
 
             ArrayList<Story> stories = 
                     openEpic.getDocumentStories();
             
             StoriesOutlineElement.insertOutline(
-                    document, 
+                    fragment, 
                     getState().bundle(), 
                     stories
             );
@@ -67,6 +80,7 @@ public class SelectedEpicStoriesOutlineElement extends Element {
             // skip story documentation when unable to access selected epic
         }
         
+        return fragment;
     }
 
 }
@@ -43,8 +43,8 @@ public class SelectedEpicStoriesTableElement extends Element {
     public void insertInto(Doc document, HashMap<String, String> vars, Node root) 
             throws IOException {
         try {
-            ArrayList<Story> stories = getState()
-                .getOpenEpic()
+            ArrayList<Story> stories = getRenderContext()
+                .getEpic()
                 .getDocumentStories();
         
             document.table(
@@ -40,7 +40,7 @@ public class SelectedEpicSummaryElement extends Element {
     public void insertInto(Doc document, HashMap<String, String> vars) 
             throws IOException {
         try {
-            Epic selectedEpic = getState().getOpenEpic();
+            Epic selectedEpic = getRenderContext().getEpic();
             document.md(selectedEpic.getSummary());
         } catch (Exception ex) {
             // skip when unable to retrieve selected epic
@@ -6,7 +6,8 @@ import com.biggerconcept.projectus.State;
 import com.biggerconcept.projectus.domain.Epic;
 import com.biggerconcept.projectus.domain.Preferences;
 import com.biggerconcept.projectus.domain.Task;
-import com.biggerconcept.projectus.reports.Element;
+import com.biggerconcept.projectus.reports.Fragment;
+import com.biggerconcept.projectus.reports.FragmentElement;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -17,7 +18,7 @@ import java.util.ResourceBundle;
  * 
  * @author Andrew Bigger
  */
-public class SelectedEpicTasksOutlineElement extends Element {
+public class SelectedEpicTasksOutlineElement extends FragmentElement {
     /**
      * Default constructor
      */
@@ -53,22 +54,35 @@ public class SelectedEpicTasksOutlineElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars) 
             throws IOException {
+        insertFragment(document);
+    }
+    
+    /**
+     * Prepares selected epic tasks outline.
+     * 
+     * @return prepared content
+     */
+    @Override
+    public Fragment prepare() {
+        Fragment fragment = new Fragment();
+        
         try {
-            Epic openEpic = getState().getOpenEpic();
+            Epic openEpic = getRenderContext().getEpic();
 
             ArrayList<Task> tasks = 
                     openEpic.getTasks();
             
             insertOutline(
-                    document, 
+                    fragment, 
                     getState().bundle(), 
-                    getState().getOpenDocument().getPreferences(),
+                    getRenderContext().getPreferences(),
                     tasks
             );
         } catch (Exception ex) {
             // skip task documentation when unable to access selected epic
         }
         
+        return fragment;
     }
     
     /**
@@ -80,7 +94,7 @@ public class SelectedEpicTasksOutlineElement extends Element {
      * @param tasks tasks to insert
      */
     public static void insertOutline(
-            Doc doc,
+            Fragment doc,
             ResourceBundle bundle,
             Preferences prefs,
             ArrayList<Task> tasks
@@ -105,7 +119,7 @@ public class SelectedEpicTasksOutlineElement extends Element {
      * @param task current task
      */
     private static void insertSizeTable(
-            Doc document,
+            Fragment document,
             ResourceBundle bundle,
             Preferences prefs,
             Task task
@@ -125,7 +139,7 @@ public class SelectedEpicTasksOutlineElement extends Element {
      * @param task current task
      */
     private static void insertDescription(
-            Doc document,
+            Fragment document,
             ResourceBundle bundle,
             Preferences prefs,
             Task task
@@ -146,7 +160,7 @@ public class SelectedEpicTasksOutlineElement extends Element {
      * @param task current task
      */
     private static void insertAcceptanceCriteria(
-            Doc document,
+            Fragment document,
             ResourceBundle bundle,
             Task task
     ) {
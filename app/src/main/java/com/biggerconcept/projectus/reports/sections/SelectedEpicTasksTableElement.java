@@ -43,11 +43,11 @@ public class SelectedEpicTasksTableElement extends Element {
     public void insertInto(Doc document, HashMap<String, String> vars) 
             throws IOException {
         try {
-            ArrayList<Task> tasks = getState().getOpenEpic().getTasks();
+            ArrayList<Task> tasks = getRenderContext().getEpic().getTasks();
         
             document.table(
                     headers(getState().bundle()), 
-                    body(getState().getOpenDocument().getPreferences(), tasks)
+                    body(getRenderContext().getPreferences(), tasks)
             );
         } catch (Exception ex) {
             // skip table when selected epic is not set
@@ -4,7 +4,8 @@ import com.biggerconcept.sdk.serializers.documents.Doc;
 import com.biggerconcept.projectus.State;
 import com.biggerconcept.projectus.domain.Document;
 import com.biggerconcept.projectus.domain.Story;
-import com.biggerconcept.projectus.reports.Element;
+import com.biggerconcept.projectus.reports.Fragment;
+import com.biggerconcept.projectus.reports.FragmentElement;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -15,7 +16,7 @@ import java.util.ResourceBundle;
  * 
  * @author Andrew Bigger
  */
-public class StoriesOutlineElement extends Element {
+public class StoriesOutlineElement extends FragmentElement {
     /**
      * Default constructor
      */
@@ -42,17 +43,30 @@ public class StoriesOutlineElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars) 
             throws IOException {
+        insertFragment(document);
+    }
+    
+    /**
+     * Prepares story outline.
+     * 
+     * @return prepared content
+     */
+    @Override
+    public Fragment prepare() {
+        Fragment fragment = new Fragment();
+        
         try {
-            Document openDocument = getState().getOpenDocument();
+            Document openDocument = getRenderContext().getDocument();
 
             ArrayList<Story> stories = 
                     openDocument.getStories();
             
-            insertOutline(document, getState().bundle(), stories);
+            insertOutline(fragment, getState().bundle(), stories);
         } catch (Exception ex) {
             // skip story documentation when unable to construct timeline
         }
         
+        return fragment;
     }
     
     /**
@@ -63,7 +77,7 @@ public class StoriesOutlineElement extends Element {
      * @param stories stories to insert
      */
     public static void insertOutline(
-            Doc doc,
+            Fragment doc,
             ResourceBundle bundle,
             ArrayList<Story> stories
     ) {
@@ -100,7 +114,7 @@ public class StoriesOutlineElement extends Element {
      * @param story story
      */
     private static void insertActor(
-            Doc document, 
+            Fragment document, 
             ResourceBundle bundle, 
             Story story
     ) {
@@ -123,7 +137,7 @@ public class StoriesOutlineElement extends Element {
      * @param story story
      */
     private static void insertIntent(
-            Doc document, 
+            Fragment document, 
             ResourceBundle bundle, 
             Story story
     ) {
@@ -146,7 +160,7 @@ public class StoriesOutlineElement extends Element {
      * @param story story
      */
     private static void insertExpectation(
-            Doc document, 
+            Fragment document, 
             ResourceBundle bundle, 
             Story story
     ) {
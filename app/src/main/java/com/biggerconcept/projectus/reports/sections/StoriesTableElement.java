@@ -41,7 +41,7 @@ public class StoriesTableElement extends Element {
      */
     public void insertInto(Doc document, HashMap<String, String> vars) 
             throws IOException {
-         ArrayList<Story> stories = getDocument().getStories();
+         ArrayList<Story> stories = getRenderContext().getDocument().getStories();
         
         document.table(
                 headers(getState().bundle()), 
@@ -1,7 +1,7 @@
 package com.biggerconcept.projectus.ui.dialogs;
 
+import com.biggerconcept.sdk.exceptions.NoChoiceMadeException;
 import com.biggerconcept.sdk.ui.dialogs.StandardDialog;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.ResourceBundle;
@@ -25,14 +25,9 @@ public class ScopeDialog {
     private final ResourceBundle bundle;
     
     /**
-     * Pointer to scope collection.
+     * Scope entered in the dialog, to return to caller.
      */
-    private final ArrayList<String> scopeCollection;
-    
-    /**
-     * Pointer to the actor.
-     */
-    private String currentScope;
+    private String chosenScope;
     
     /**
      * Scope text area.
@@ -43,17 +38,10 @@ public class ScopeDialog {
      * Constructor for scope dialog.
      * 
      * @param rb resource bundle for application
-     * @param collection scope collection
      * @param scope scope for dialog
      */
-    public ScopeDialog(
-            ResourceBundle rb,
-            ArrayList<String> collection,
-            String scope
-    ) {
+    public ScopeDialog(ResourceBundle rb, String scope) {
         bundle = rb;
-        scopeCollection = collection;
-        currentScope = scope;
         
         scopeField = new TextField(scope);
     }
@@ -62,8 +50,12 @@ public class ScopeDialog {
      * Shows scope dialog on specified stage.
      * 
      * @param stage parent window to show dialog from
+     * 
+     * @return entered scope
+     * 
+     * @throws NoChoiceMadeException when the dialog is cancelled
      */
-    public void show(Stage stage) {
+    public String show(Stage stage) throws NoChoiceMadeException {
         List<Node> attributes = Arrays.asList(
                 nameAttribute()
         );
@@ -92,30 +84,19 @@ public class ScopeDialog {
         
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == apply) {
-                applyToScope();
+                chosenScope = scopeField.getText();
             }
 
             return null;
         });
         
         dialog.showAndWait();
-    }
-    
-    /**
-     * Applies scope to collection.
-     * 
-     * If the scope exists then it is removed from the list.
-     * 
-     * Then the scope is appended.
-     */
-    private void applyToScope() {
-        currentScope = scopeField.getText();
         
-        if (scopeCollection.contains(currentScope)) {
-            scopeCollection.remove(currentScope);
+        if (chosenScope == null) {
+            throw new NoChoiceMadeException();
         }
         
-        scopeCollection.add(currentScope);
+        return chosenScope;
     }
     
     /**
@@ -0,0 +1,154 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Document;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the atomic document writer.
+ * 
+ * @author Andrew Bigger
+ */
+public class AtomicDocumentWriterTest {
+    /**
+     * Folder for documents.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    /**
+     * Writing replaces the file, and leaves no temporary file.
+     * 
+     * @throws IOException when unable to write the file
+     */
+    @Test
+    public void writeReplacesFile() throws IOException {
+        File file = folder.newFile("doc.projectus");
+        byte[] content = "replaced".getBytes(StandardCharsets.UTF_8);
+        
+        Files.write(file.toPath(), "original".getBytes(StandardCharsets.UTF_8));
+        AtomicDocumentWriter.write(file, content);
+        
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertEquals(1, folder.getRoot().list().length);
+    }
+    
+    /**
+     * A write that can not replace its target leaves the target as it was,
+     * and removes the temporary file.
+     * 
+     * @throws IOException when unable to set up the target
+     */
+    @Test
+    public void failedWriteKeepsTarget() throws IOException {
+        File target = folder.newFolder("doc.projectus");
+        File inside = new File(target, "kept");
+        
+        Files.write(inside.toPath(), "kept".getBytes(StandardCharsets.UTF_8));
+        
+        try {
+            AtomicDocumentWriter.write(
+                    target,
+                    "replaced".getBytes(StandardCharsets.UTF_8)
+            );
+            fail("Write over a directory should fail");
+        } catch (IOException e) {
+            // expected
+        }
+        
+        assertTrue(target.isDirectory());
+        assertTrue(inside.exists());
+        assertEquals(1, folder.getRoot().list().length);
+    }
+    
+    /**
+     * Writers of the same file at the same time each replace the whole
+     * file, and leave no temporary files.
+     * 
+     * @throws Exception when unable to write the file
+     */
+    @Test
+    public void concurrentWritesReplaceWholeFile() throws Exception {
+        File file = folder.newFile("doc.projectus");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> writes = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        
+        for (int i = 0; i < 16; i++) {
+            StringBuilder content = new StringBuilder();
+            
+            for (int j = 0; j < 10000; j++) {
+                content.append(i);
+            }
+            
+            byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+            contents.add(content.toString());
+            writes.add(pool.submit(() -> {
+                AtomicDocumentWriter.write(file, bytes);
+                
+                return null;
+            }));
+        }
+        
+        for (Future<?> w : writes) {
+            w.get();
+        }
+        
+        pool.shutdown();
+        
+        String written = new String(
+                Files.readAllBytes(file.toPath()),
+                StandardCharsets.UTF_8
+        );
+        
+        assertTrue(contents.contains(written));
+        assertEquals(1, folder.getRoot().list().length);
+    }
+    
+    /**
+     * A snapshot written later holds the document as it was when the
+     * snapshot was taken.
+     * 
+     * @throws IOException when unable to write the document
+     */
+    @Test
+    public void snapshotIsDetachedFromDocument() throws IOException {
+        File file = new File(folder.getRoot(), "doc.projectus");
+        
+        try (InputStream in = getClass()
+                .getResourceAsStream("/example.projectus")) {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        
+        Document doc = Document.load(file);
+        String title = doc.getTitle();
+        DocumentSnapshot snapshot = new DocumentSnapshot(doc);
+        
+        doc.setTitle("Changed after snapshot");
+        AtomicDocumentWriter.write(
+                snapshot.file,
+                snapshot.snapshot,
+                snapshot.format,
+                snapshot.compressed
+        );
+        
+        assertEquals(title, Document.load(file).getTitle());
+        assertEquals(1, folder.getRoot().list().length);
+    }
+}
@@ -0,0 +1,194 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.domain.Epic;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for document journals.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentJournalTest {
+    /**
+     * Folder for documents.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    /**
+     * Appended changes are replayed when the document is loaded.
+     * 
+     * @throws IOException when unable to journal the document
+     */
+    @Test
+    public void appendedChangesAreReplayed() throws IOException {
+        Document doc = copy("doc.projectus");
+        Epic first = doc.getEpics().get(0);
+        Epic last = doc.getEpics().get(doc.getEpics().size() - 1);
+        
+        first.setName("Journalled");
+        doc.removeEpic(last);
+        doc.setTitle("Journalled title");
+        DocumentJournal.append(doc);
+        
+        assertTrue(doc.getChanges().isEmpty());
+        
+        Document loaded = Document.load(doc.getFile());
+        
+        assertEquals("Journalled", loaded.findEpic(first.getId()).getName());
+        assertNull(loaded.findEpic(last.getId()));
+        assertEquals("Journalled title", loaded.getTitle());
+    }
+    
+    /**
+     * An epic that changes id is only found under its new id when the
+     * document is loaded.
+     * 
+     * @throws IOException when unable to journal the document
+     */
+    @Test
+    public void changedIdIsReplayed() throws IOException {
+        Document doc = copy("doc.projectus");
+        Epic first = doc.getEpics().get(0);
+        UUID previous = first.getId();
+        UUID current = UUID.randomUUID();
+        int count = doc.getEpics().size();
+        
+        first.setId(current);
+        DocumentJournal.append(doc);
+        
+        Document loaded = Document.load(doc.getFile());
+        
+        assertNull(loaded.findEpic(previous));
+        assertEquals(first.getName(), loaded.findEpic(current).getName());
+        assertEquals(count, loaded.getEpics().size());
+    }
+    
+    /**
+     * A record cut short by a crash while appending is dropped, and the
+     * journal is truncated to the last whole record.
+     * 
+     * @throws IOException when unable to journal the document
+     */
+    @Test
+    public void tornRecordIsDropped() throws IOException {
+        Document doc = copy("doc.projectus");
+        Epic first = doc.getEpics().get(0);
+        
+        first.setName("Journalled");
+        DocumentJournal.append(doc);
+        
+        long whole = DocumentJournal.length(doc.getFile());
+        File journal = DocumentJournal.journalFor(doc.getFile());
+        
+        try (FileOutputStream out = new FileOutputStream(journal, true)) {
+            out.write(
+                    "{\"op\":\"put\",\"type\":\"epic\",\"val"
+                            .getBytes(StandardCharsets.UTF_8)
+            );
+        }
+        
+        Document loaded = Document.load(doc.getFile());
+        
+        assertEquals("Journalled", loaded.findEpic(first.getId()).getName());
+        assertEquals(whole, DocumentJournal.length(doc.getFile()));
+    }
+    
+    /**
+     * Replaying a journal again gives the same document.
+     * 
+     * @throws IOException when unable to journal the document
+     */
+    @Test
+    public void replayIsIdempotent() throws IOException {
+        Document doc = copy("doc.projectus");
+        Epic first = doc.getEpics().get(0);
+        UUID removed = doc.getEpics().get(1).getId();
+        
+        first.setName("Journalled");
+        doc.removeEpic(doc.getEpics().get(1));
+        doc.swapEpics(0, doc.getEpics().size() - 1);
+        DocumentJournal.append(doc);
+        
+        Document loaded = Document.load(doc.getFile());
+        String once = DocumentMapper.mapper().writeValueAsString(loaded);
+        
+        DocumentJournal.replay(loaded);
+        
+        assertEquals(once, DocumentMapper.mapper().writeValueAsString(loaded));
+        assertEquals(doc.getEpics().size(), loaded.getEpics().size());
+        assertEquals(first.getId(), loaded.getEpics().get(
+                loaded.getEpics().size() - 1
+        ).getId());
+        assertNull(loaded.findEpic(removed));
+    }
+    
+    /**
+     * Discarding records written to the document keeps records appended
+     * after them.
+     * 
+     * @throws IOException when unable to journal the document
+     */
+    @Test
+    public void discardKeepsLaterRecords() throws IOException {
+        Document doc = copy("doc.projectus");
+        Epic first = doc.getEpics().get(0);
+        
+        first.setName("Saved");
+        DocumentJournal.append(doc);
+        
+        long saved = DocumentJournal.length(doc.getFile());
+        
+        first.setName("Journalled");
+        DocumentJournal.append(doc);
+        
+        long total = DocumentJournal.length(doc.getFile());
+        
+        DocumentJournal.discard(doc.getFile(), saved);
+        
+        assertEquals(total - saved, DocumentJournal.length(doc.getFile()));
+        assertEquals(
+                "Journalled",
+                Document.load(doc.getFile()).findEpic(first.getId()).getName()
+        );
+        
+        DocumentJournal.discard(doc.getFile(), total - saved);
+        
+        assertFalse(DocumentJournal.journalFor(doc.getFile()).exists());
+    }
+    
+    /**
+     * Copies the example document into the folder and loads it.
+     * 
+     * @param name file name
+     * 
+     * @return loaded document
+     * 
+     * @throws IOException when unable to copy the document
+     */
+    private Document copy(String name) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        
+        try (InputStream in = getClass()
+                .getResourceAsStream("/example.projectus")) {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        
+        return Document.load(file);
+    }
+}
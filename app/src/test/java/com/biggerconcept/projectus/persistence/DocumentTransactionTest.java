@@ -0,0 +1,233 @@
+package com.biggerconcept.projectus.persistence;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for document transactions.
+ * 
+ * Interrupted transactions are set up by writing the temporary files and
+ * markers a commit leaves behind at each step.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentTransactionTest {
+    /**
+     * Folder for documents.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    /**
+     * Committed documents are written, and nothing else is left behind.
+     * 
+     * @throws IOException when unable to write documents
+     */
+    @Test
+    public void commitWritesEveryDocument() throws IOException {
+        Document a = copy("a.projectus");
+        Document b = copy("b.projectus");
+        
+        a.setTitle("Changed A");
+        b.setTitle("Changed B");
+        
+        DocumentTransaction.commit(a, b);
+        
+        assertTrue(a.getChanges().isEmpty());
+        assertTrue(b.getChanges().isEmpty());
+        assertEquals("Changed A", Document.load(a.getFile()).getTitle());
+        assertEquals("Changed B", Document.load(b.getFile()).getTitle());
+        assertEquals(2, folder.getRoot().list().length);
+    }
+    
+    /**
+     * A transaction that stopped between writing its markers is rolled
+     * back when either document is loaded.
+     * 
+     * @throws IOException when unable to set up the transaction
+     */
+    @Test
+    public void crashBetweenMarkersRollsBack() throws IOException {
+        Document a = copy("a.projectus");
+        Document b = copy("b.projectus");
+        String title = a.getTitle();
+        String id = UUID.randomUUID().toString();
+        
+        a.setTitle("Changed A");
+        b.setTitle("Changed B");
+        
+        File tempA = tempFor(a.getFile(), id);
+        File tempB = tempFor(b.getFile(), id);
+        
+        AtomicDocumentWriter.write(tempA, a);
+        AtomicDocumentWriter.write(tempB, b);
+        writeMarker(a.getFile(), id, a, b);
+        
+        Document loaded = Document.load(a.getFile());
+        
+        assertEquals(title, loaded.getTitle());
+        assertEquals(title, Document.load(b.getFile()).getTitle());
+        assertFalse(tempA.exists());
+        assertFalse(tempB.exists());
+        assertFalse(DocumentTransaction.markerFor(a.getFile()).exists());
+    }
+    
+    /**
+     * A transaction that stopped after writing every marker is finished
+     * when any of its documents is loaded.
+     * 
+     * @throws IOException when unable to set up the transaction
+     */
+    @Test
+    public void crashAfterMarkersRollsForward() throws IOException {
+        Document a = copy("a.projectus");
+        Document b = copy("b.projectus");
+        String id = UUID.randomUUID().toString();
+        
+        a.setTitle("Changed A");
+        b.setTitle("Changed B");
+        
+        File tempA = tempFor(a.getFile(), id);
+        
+        // the document b was already renamed over its target
+        AtomicDocumentWriter.write(tempA, a);
+        AtomicDocumentWriter.write(b.getFile(), b);
+        writeMarker(a.getFile(), id, a, b);
+        writeMarker(b.getFile(), id, a, b);
+        
+        assertEquals("Changed B", Document.load(b.getFile()).getTitle());
+        assertEquals("Changed A", Document.load(a.getFile()).getTitle());
+        assertFalse(tempA.exists());
+        assertFalse(DocumentTransaction.markerFor(a.getFile()).exists());
+        assertFalse(DocumentTransaction.markerFor(b.getFile()).exists());
+    }
+    
+    /**
+     * Recovering a finished transaction again changes nothing.
+     * 
+     * @throws IOException when unable to set up the transaction
+     */
+    @Test
+    public void recoverIsIdempotent() throws IOException {
+        Document a = copy("a.projectus");
+        Document b = copy("b.projectus");
+        String id = UUID.randomUUID().toString();
+        
+        a.setTitle("Changed A");
+        
+        AtomicDocumentWriter.write(tempFor(a.getFile(), id), a);
+        writeMarker(a.getFile(), id, a, b);
+        writeMarker(b.getFile(), id, a, b);
+        
+        DocumentTransaction.recover(a.getFile());
+        
+        byte[] recovered = Files.readAllBytes(a.getFile().toPath());
+        
+        DocumentTransaction.recover(a.getFile());
+        DocumentTransaction.recover(b.getFile());
+        
+        assertArrayEquals(recovered, Files.readAllBytes(a.getFile().toPath()));
+        assertEquals("Changed A", Document.load(a.getFile()).getTitle());
+        assertEquals(2, folder.getRoot().list().length);
+    }
+    
+    /**
+     * Temporary files of a transaction that stopped before writing any
+     * marker are removed when the document is loaded.
+     * 
+     * @throws IOException when unable to set up the transaction
+     */
+    @Test
+    public void crashBeforeMarkersRemovesTemporaryFiles() throws IOException {
+        Document a = copy("a.projectus");
+        String title = a.getTitle();
+        File orphan = tempFor(a.getFile(), UUID.randomUUID().toString());
+        File unrelated = folder.newFile(".a.projectus.notes.pending");
+        
+        a.setTitle("Changed A");
+        AtomicDocumentWriter.write(orphan, a);
+        
+        assertEquals(title, Document.load(a.getFile()).getTitle());
+        assertFalse(orphan.exists());
+        assertTrue(unrelated.exists());
+    }
+    
+    /**
+     * Copies the example document into the folder and loads it.
+     * 
+     * @param name file name
+     * 
+     * @return loaded document
+     * 
+     * @throws IOException when unable to copy the document
+     */
+    private Document copy(String name) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        
+        try (InputStream in = getClass()
+                .getResourceAsStream("/example.projectus")) {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        
+        return Document.load(file);
+    }
+    
+    /**
+     * Returns the temporary file a transaction writes a document to.
+     * 
+     * @param file document file
+     * @param id transaction id
+     * 
+     * @return temporary file
+     */
+    private static File tempFor(File file, String id) {
+        return new File(
+                file.getAbsoluteFile().getParentFile(),
+                "." + file.getName() + "." + id + ".pending"
+        );
+    }
+    
+    /**
+     * Writes the marker of a transaction next to a document.
+     * 
+     * @param file document file to write marker for
+     * @param id transaction id
+     * @param docs documents in the transaction
+     * 
+     * @throws IOException when unable to write the marker
+     */
+    private static void writeMarker(File file, String id, Document... docs)
+            throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode record = mapper.createObjectNode();
+        record.put("id", id);
+        
+        ArrayNode documents = record.putArray("documents");
+        
+        for (Document doc : docs) {
+            ObjectNode part = documents.addObject();
+            part.put("file", doc.getFile().getAbsolutePath());
+            part.put("journalLength", 0);
+        }
+        
+        AtomicDocumentWriter.write(
+                DocumentTransaction.markerFor(file),
+                mapper.writeValueAsBytes(record)
+        );
+    }
+}
@@ -0,0 +1,52 @@
+package com.biggerconcept.projectusbenchmarks;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.persistence.DocumentFormat;
+import java.io.IOException;
+
+/**
+ * Prints the encoded size of synthetic documents.
+ * 
+ * Sizes are printed for every format, with and without compression, so
+ * that they can be read alongside the persistence benchmarks.
+ * 
+ * @author Andrew Bigger
+ */
+public class DocumentSizes {
+    /**
+     * Numbers of tasks to print sizes for.
+     */
+    private static final int[] TASKS = { 10, 1000, 100000 };
+    
+    /**
+     * Prints document sizes.
+     * 
+     * @param args command line arguments
+     * 
+     * @throws IOException when unable to encode a document
+     */
+    public static void main(String[] args) throws IOException {
+        System.out.println("tasks\tformat\tcompressed\tbytes");
+        
+        for (int tasks : TASKS) {
+            Document doc = SyntheticDocuments.build(tasks);
+            
+            for (DocumentFormat format : DocumentFormat.values()) {
+                for (boolean compressed : new boolean[] { false, true }) {
+                    byte[] bytes = PersistenceBenchmark.encode(
+                            doc,
+                            format,
+                            compressed
+                    );
+                    
+                    System.out.println(
+                            tasks
+                            + "\t" + format
+                            + "\t" + compressed
+                            + "\t" + bytes.length
+                    );
+                }
+            }
+        }
+    }
+}
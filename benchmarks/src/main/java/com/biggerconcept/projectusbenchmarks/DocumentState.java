@@ -0,0 +1,43 @@
+package com.biggerconcept.projectusbenchmarks;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.domain.Epic;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Synthetic document shared by the calculation benchmarks.
+ * 
+ * @author Andrew Bigger
+ */
+@State(Scope.Benchmark)
+public class DocumentState {
+    /**
+     * Number of tasks in the document.
+     */
+    @Param({"10", "1000", "100000"})
+    public int tasks;
+    
+    /**
+     * Document under test.
+     */
+    public Document doc;
+    
+    /**
+     * Builds the document.
+     * 
+     * Epic outlooks are calculated, so that their projections can be
+     * read.
+     */
+    @Setup(Level.Trial)
+    public void build() {
+        doc = SyntheticDocuments.build(tasks);
+        
+        for (Epic e : doc.getEpics()) {
+            e.getOutlook().calculate(doc.getPreferences(), e, false);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.biggerconcept.projectusbenchmarks;
+
+import com.biggerconcept.projectus.domain.Epic;
+import com.biggerconcept.projectus.domain.Preferences;
+import com.biggerconcept.projectus.domain.Task;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for epic aggregates.
+ * 
+ * Each benchmark covers every epic in the document, as the status
+ * panel and the epics table do.
+ * 
+ * @author Andrew Bigger
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EpicBenchmark {
+    @Benchmark
+    public long getSize(DocumentState state) {
+        Preferences prefs = state.doc.getPreferences();
+        long total = 0;
+        
+        for (Epic e : state.doc.getEpics()) {
+            total += e.getSize(prefs);
+        }
+        
+        return total;
+    }
+    
+    @Benchmark
+    public long calculateTotalPoints(DocumentState state) {
+        Preferences prefs = state.doc.getPreferences();
+        long total = 0;
+        
+        for (Epic e : state.doc.getEpics()) {
+            total += e.calculateTotalPoints(prefs);
+        }
+        
+        return total;
+    }
+    
+    @Benchmark
+    public long calculateCompletePointCount(DocumentState state) {
+        Preferences prefs = state.doc.getPreferences();
+        long total = 0;
+        
+        for (Epic e : state.doc.getEpics()) {
+            total += e.calculateCompletePointCount(prefs);
+        }
+        
+        return total;
+    }
+    
+    @Benchmark
+    public long calculateStatus(DocumentState state) {
+        long total = 0;
+        
+        for (Epic e : state.doc.getEpics()) {
+            total += e.calculateStatus().ordinal();
+        }
+        
+        return total;
+    }
+    
+    @Benchmark
+    public long calculateSizedCount(DocumentState state) {
+        long total = 0;
+        
+        for (Epic e : state.doc.getEpics()) {
+            total += e.calculateSizedCount();
+        }
+        
+        return total;
+    }
+    
+    @Benchmark
+    public long calculateDescribedCount(DocumentState state) {
+        long total = 0;
+        
+        for (Epic e : state.doc.getEpics()) {
+            total += e.calculateDescribedCount();
+        }
+        
+        return total;
+    }
+    
+    @Benchmark
+    public long calculateCompleteCount(DocumentState state) {
+        long total = 0;
+        
+        for (Epic e : state.doc.getEpics()) {
+            total += e.calculateCompleteCount();
+        }
+        
+        return total;
+    }
+    
+    /**
+     * Reads every figure the epic overview shows, for every epic.
+     * 
+     * @param state document state
+     * 
+     * @return sum of figures, so that none are optimised away
+     */
+    @Benchmark
+    public double epicOverview(DocumentState state) {
+        Preferences prefs = state.doc.getPreferences();
+        double total = 0;
+        
+        for (Epic e : state.doc.getEpics()) {
+            total += e.calculateSummaryProgress()
+                    + e.calculateScopeProgress()
+                    + e.calculateDefinitionProgress()
+                    + e.calculateSizedProgress()
+                    + e.calculateDescribedProgress()
+                    + e.calculateCompleteProgress()
+                    + e.calculateCompletePointProgress(prefs)
+                    + e.calculateStatus().ordinal();
+        }
+        
+        return total;
+    }
+    
+    /**
+     * Looks up the last task of the last epic by id.
+     * 
+     * @param state document state
+     * 
+     * @return found task
+     */
+    @Benchmark
+    public Task findTask(DocumentState state) {
+        List<Epic> epics = state.doc.getEpics();
+        Epic epic = epics.get(epics.size() - 1);
+        List<Task> tasks = epic.getTasks();
+        
+        return epic.findTask(tasks.get(tasks.size() - 1).getId());
+    }
+}
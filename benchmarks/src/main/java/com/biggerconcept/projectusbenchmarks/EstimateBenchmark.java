@@ -0,0 +1,85 @@
+package com.biggerconcept.projectusbenchmarks;
+
+import com.biggerconcept.projectus.domain.Epic;
+import com.biggerconcept.projectus.domain.Preferences;
+import com.biggerconcept.projectus.domain.Size.TaskSize;
+import com.biggerconcept.projectus.domain.Task;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for summing task points.
+ * 
+ * Every task in the document is visited, as the tasks table and reports
+ * do. The estimate table in the preferences is compared with the switch
+ * on task size that it replaced.
+ * 
+ * @author Andrew Bigger
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EstimateBenchmark {
+    @Benchmark
+    public long estimateTable(DocumentState state) {
+        Preferences prefs = state.doc.getPreferences();
+        long total = 0;
+        
+        for (Epic e : state.doc.getEpics()) {
+            for (Task t : e.getTasks()) {
+                total += prefs.estimateFor(t.getSize());
+            }
+        }
+        
+        return total;
+    }
+    
+    @Benchmark
+    public long estimateSwitch(DocumentState state) {
+        Preferences prefs = state.doc.getPreferences();
+        long total = 0;
+        
+        for (Epic e : state.doc.getEpics()) {
+            for (Task t : e.getTasks()) {
+                total += estimateFor(prefs, t.getSize());
+            }
+        }
+        
+        return total;
+    }
+    
+    /**
+     * Returns the estimate for a task size by switching on the size.
+     * 
+     * This is how estimates were looked up before the estimate table.
+     * 
+     * @param prefs document preferences
+     * @param size task size
+     * 
+     * @return estimate as number
+     */
+    private static int estimateFor(Preferences prefs, TaskSize size) {
+        switch (size) {
+            case XS:
+                return prefs.getExtraSmallTaskSize();
+            case S:
+                return prefs.getSmallTaskSize();
+            case M:
+                return prefs.getMediumTaskSize();
+            case L:
+                return prefs.getLargeTaskSize();
+            case XL:
+                return prefs.getExtraLargeTaskSize();
+            default:
+                return 0;
+        }
+    }
+}
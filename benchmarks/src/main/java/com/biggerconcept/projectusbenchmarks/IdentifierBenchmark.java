@@ -0,0 +1,33 @@
+package com.biggerconcept.projectusbenchmarks;
+
+import com.biggerconcept.projectus.domain.Document;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for rebuilding document identifiers.
+ * 
+ * The identifiers are already in order, which is the usual case when a
+ * document is saved.
+ * 
+ * @author Andrew Bigger
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdentifierBenchmark {
+    @Benchmark
+    public Document rebuildIdentifiers(DocumentState state) {
+        state.doc.rebuildIdentifiers();
+        
+        return state.doc;
+    }
+}
@@ -0,0 +1,88 @@
+package com.biggerconcept.projectusbenchmarks;
+
+import com.biggerconcept.projectus.domain.Epic;
+import com.biggerconcept.projectus.domain.Outlook;
+import com.biggerconcept.projectus.domain.Preferences;
+import com.biggerconcept.projectus.domain.Projection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for epic outlooks and their projections.
+ * 
+ * Each benchmark covers every epic in the document.
+ * 
+ * @author Andrew Bigger
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutlookBenchmark {
+    @Benchmark
+    public int calculate(DocumentState state) {
+        return calculate(state, false);
+    }
+    
+    @Benchmark
+    public int calculateExcludingCompleted(DocumentState state) {
+        return calculate(state, true);
+    }
+    
+    /**
+     * Reads every projection accessor of every epic outlook.
+     * 
+     * @param state document state
+     * 
+     * @return sum of projection figures, so that none are optimised away
+     */
+    @Benchmark
+    public long projections(DocumentState state) {
+        long total = 0;
+        
+        for (Epic e : state.doc.getEpics()) {
+            for (Projection p : e.getOutlook().projections()) {
+                total += p.getName().length()
+                        + p.getAdjustment()
+                        + p.getTotalPoints()
+                        + p.getPointsPerSprint()
+                        + p.getSprints()
+                        + p.getWeeks();
+            }
+        }
+        
+        return total;
+    }
+    
+    /**
+     * Calculates the outlook of every epic.
+     * 
+     * @param state document state
+     * @param exclCompletedPoints whether to exclude completed points
+     * 
+     * @return sum of estimates, so that none are optimised away
+     */
+    private static int calculate(
+            DocumentState state,
+            boolean exclCompletedPoints
+    ) {
+        Preferences prefs = state.doc.getPreferences();
+        int total = 0;
+        
+        for (Epic e : state.doc.getEpics()) {
+            Outlook outlook = e.getOutlook();
+            outlook.calculate(prefs, e, exclCompletedPoints);
+            
+            total += outlook.getEstimatePoints();
+        }
+        
+        return total;
+    }
+}
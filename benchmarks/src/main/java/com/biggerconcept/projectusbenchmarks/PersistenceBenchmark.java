@@ -0,0 +1,172 @@
+package com.biggerconcept.projectusbenchmarks;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.persistence.AtomicDocumentWriter;
+import com.biggerconcept.projectus.persistence.DocumentFormat;
+import com.biggerconcept.projectus.persistence.DocumentMapper;
+import com.biggerconcept.projectus.persistence.DocumentStreams;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading and writing documents.
+ * 
+ * Documents are encoded in memory, to compare formats and compression
+ * without the disk, and saved to and opened from a temporary file, as
+ * the application does.
+ * 
+ * @author Andrew Bigger
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+    /**
+     * Synthetic document with its encoded bytes and file.
+     */
+    @State(Scope.Benchmark)
+    public static class EncodedState {
+        /**
+         * Number of tasks in the document.
+         */
+        @Param({"10", "1000", "100000"})
+        public int tasks;
+        
+        /**
+         * Encoding of the document.
+         */
+        @Param({"JSON", "SMILE"})
+        public DocumentFormat format;
+        
+        /**
+         * Whether the document is compressed.
+         */
+        @Param({"false", "true"})
+        public boolean compressed;
+        
+        /**
+         * Document under test.
+         */
+        public Document doc;
+        
+        /**
+         * Encoded document.
+         */
+        public byte[] bytes;
+        
+        /**
+         * Temporary document file.
+         */
+        public File file;
+        
+        /**
+         * Builds, encodes and saves the document.
+         * 
+         * @throws IOException when unable to write the document
+         */
+        @Setup(Level.Trial)
+        public void build() throws IOException {
+            doc = SyntheticDocuments.build(tasks);
+            doc.getPreferences().setDocumentFormat(format);
+            doc.getPreferences().setCompressed(compressed);
+            
+            bytes = encode(doc, format, compressed);
+            
+            file = File.createTempFile("benchmark", ".projectus");
+            AtomicDocumentWriter.write(file, doc);
+        }
+        
+        /**
+         * Removes the temporary document file.
+         * 
+         * @throws IOException when unable to delete the file
+         */
+        @TearDown(Level.Trial)
+        public void remove() throws IOException {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+    
+    @Benchmark
+    public byte[] encode(EncodedState state) throws IOException {
+        return encode(state.doc, state.format, state.compressed);
+    }
+    
+    @Benchmark
+    public Document decode(EncodedState state) throws IOException {
+        try (InputStream in = DocumentStreams.open(
+                new ByteArrayInputStream(state.bytes)
+        )) {
+            return DocumentMapper.reader(state.format).readValue(in);
+        }
+    }
+    
+    @Benchmark
+    public File save(EncodedState state) throws IOException {
+        AtomicDocumentWriter.write(state.file, state.doc);
+        
+        return state.file;
+    }
+    
+    @Benchmark
+    public Document open(EncodedState state) throws IOException {
+        return Document.load(state.file);
+    }
+    
+    /**
+     * Encodes a document in memory.
+     * 
+     * The document is written through a snapshot, as it is when saved.
+     * 
+     * @param doc document to encode
+     * @param format encoding to write
+     * @param compressed whether to gzip the document
+     * 
+     * @return encoded document
+     * 
+     * @throws IOException when unable to encode the document
+     */
+    static byte[] encode(
+            Document doc,
+            DocumentFormat format,
+            boolean compressed
+    ) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TokenBuffer snapshot = AtomicDocumentWriter.snapshot(doc);
+        
+        try (OutputStream out = DocumentStreams.create(bytes, compressed)) {
+            JsonGenerator gen = DocumentMapper
+                    .mapper(format)
+                    .getFactory()
+                    .createGenerator(out);
+            
+            snapshot.serialize(gen);
+            gen.close();
+        }
+        
+        return bytes.toByteArray();
+    }
+}
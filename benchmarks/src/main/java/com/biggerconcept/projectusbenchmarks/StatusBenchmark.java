@@ -0,0 +1,179 @@
+package com.biggerconcept.projectusbenchmarks;
+
+import com.biggerconcept.projectus.domain.Status;
+import com.biggerconcept.projectus.domain.Status.Tracking;
+import com.biggerconcept.projectus.domain.StatusSnapshot;
+import com.biggerconcept.projectus.domain.Task;
+import com.biggerconcept.projectus.domain.Task.TaskStatus;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the overall project status.
+ * 
+ * Every Status method is measured on its own. The snapshot is measured
+ * both when it is cached and when a change forces it to be taken again.
+ * 
+ * @author Andrew Bigger
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatusBenchmark {
+    @Benchmark
+    public boolean hasDates(DocumentState state) {
+        return state.doc.status().hasDates();
+    }
+    
+    @Benchmark
+    public boolean hasStarted(DocumentState state) {
+        return state.doc.status().hasStarted();
+    }
+    
+    @Benchmark
+    public boolean hasConcluded(DocumentState state) {
+        return state.doc.status().hasConcluded();
+    }
+    
+    @Benchmark
+    public long totalWeeks(DocumentState state) {
+        return state.doc.status().totalWeeks();
+    }
+    
+    @Benchmark
+    public long weeksElapsed(DocumentState state) {
+        return state.doc.status().weeksElapsed();
+    }
+    
+    @Benchmark
+    public long totalSprints(DocumentState state) {
+        return state.doc.status().totalSprints();
+    }
+    
+    @Benchmark
+    public long sprintsElapsed(DocumentState state) {
+        return state.doc.status().sprintsElapsed();
+    }
+    
+    @Benchmark
+    public int totalPoints(DocumentState state) {
+        return state.doc.status().totalPoints();
+    }
+    
+    @Benchmark
+    public int completedPoints(DocumentState state) {
+        return state.doc.status().completedPoints();
+    }
+    
+    @Benchmark
+    public int pointsPerSprint(DocumentState state) {
+        return state.doc.status().pointsPerSprint();
+    }
+    
+    @Benchmark
+    public int availablePoints(DocumentState state) {
+        return state.doc.status().availablePoints();
+    }
+    
+    @Benchmark
+    public double availablePointsProgress(DocumentState state) {
+        return state.doc.status().availablePointsProgress();
+    }
+    
+    @Benchmark
+    public boolean isOverCommitted(DocumentState state) {
+        return state.doc.status().isOverCommitted();
+    }
+    
+    @Benchmark
+    public double sprintProgress(DocumentState state) {
+        return state.doc.status().sprintProgress();
+    }
+    
+    @Benchmark
+    public double pointProgress(DocumentState state) {
+        return state.doc.status().pointProgress();
+    }
+    
+    @Benchmark
+    public int idealPointsPerSprint(DocumentState state) {
+        return state.doc.status().idealPointsPerSprint();
+    }
+    
+    @Benchmark
+    public Tracking summary(DocumentState state) {
+        return state.doc.status().summary();
+    }
+    
+    /**
+     * Reads every figure the status panel shows from a live Status.
+     * 
+     * @param state document state
+     * 
+     * @return sum of figures, so that none are optimised away
+     */
+    @Benchmark
+    public long statusPanel(DocumentState state) {
+        Status status = state.doc.status();
+        
+        return status.totalWeeks()
+                + status.totalSprints()
+                + status.weeksElapsed()
+                + status.sprintsElapsed()
+                + status.totalPoints()
+                + status.completedPoints()
+                + status.pointsPerSprint()
+                + status.summary().ordinal()
+                + status.availablePoints();
+    }
+    
+    /**
+     * Reads every figure the status panel shows from the snapshot.
+     * 
+     * @param state document state
+     * 
+     * @return sum of figures, so that none are optimised away
+     */
+    @Benchmark
+    public long statusPanelSnapshot(DocumentState state) {
+        StatusSnapshot status = state.doc.statusSnapshot();
+        
+        return status.totalWeeks()
+                + status.totalSprints()
+                + status.weeksElapsed()
+                + status.sprintsElapsed()
+                + status.totalPoints()
+                + status.completedPoints()
+                + status.pointsPerSprint()
+                + status.summary().ordinal()
+                + status.availablePoints();
+    }
+    
+    /**
+     * Changes a task, then reads the snapshot, which is taken again.
+     * 
+     * @param state document state
+     * 
+     * @return snapshot
+     */
+    @Benchmark
+    public StatusSnapshot snapshotAfterChange(DocumentState state) {
+        Task task = state.doc.getEpics().get(0).getTasks().get(0);
+        
+        if (task.getStatus() == TaskStatus.COMPLETE) {
+            task.setStatus(TaskStatus.IN_PROGRESS);
+        } else {
+            task.setStatus(TaskStatus.COMPLETE);
+        }
+        
+        return state.doc.statusSnapshot();
+    }
+}
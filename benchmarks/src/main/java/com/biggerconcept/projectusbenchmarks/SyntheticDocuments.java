@@ -0,0 +1,72 @@
+package com.biggerconcept.projectusbenchmarks;
+
+import com.biggerconcept.projectus.domain.Document;
+import com.biggerconcept.projectus.domain.Epic;
+import com.biggerconcept.projectus.domain.Size.TaskSize;
+import com.biggerconcept.projectus.domain.Task;
+import com.biggerconcept.projectus.domain.Task.TaskStatus;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Builds documents of a given size for benchmarks.
+ * 
+ * Documents are built from a fixed seed, so every run measures the same
+ * document. Tasks are spread over epics of up to 100 tasks, with a mix of
+ * sizes, statuses and descriptions. The project started eight weeks ago
+ * and ends in sixteen weeks, so that every status figure has a value.
+ * 
+ * @author Andrew Bigger
+ */
+public class SyntheticDocuments {
+    /**
+     * Largest number of tasks in an epic.
+     */
+    public static final int TASKS_PER_EPIC = 100;
+    
+    /**
+     * Seed for random task content.
+     */
+    private static final long SEED = 42;
+    
+    /**
+     * Builds a document.
+     * 
+     * @param tasks number of tasks in the document
+     * 
+     * @return document
+     */
+    public static Document build(int tasks) {
+        Random random = new Random(SEED);
+        Document doc = new Document();
+        
+        doc.setTitle("Synthetic " + tasks);
+        doc.setStart(LocalDate.now().minusWeeks(8).toEpochDay());
+        doc.setEnd(LocalDate.now().plusWeeks(16).toEpochDay());
+        
+        TaskSize[] sizes = TaskSize.values();
+        TaskStatus[] statuses = TaskStatus.values();
+        
+        for (int made = 0; made < tasks; made += TASKS_PER_EPIC) {
+            doc.createEpic("Epic " + (made / TASKS_PER_EPIC + 1));
+            
+            Epic epic = doc.getEpics().get(doc.getEpics().size() - 1);
+            int count = Math.min(TASKS_PER_EPIC, tasks - made);
+            
+            for (int i = 0; i < count; i++) {
+                epic.addTask(new Task(
+                        "Task " + (made + i + 1),
+                        random.nextBoolean() ? "Description of task" : "",
+                        random.nextBoolean() ? "- Task is done" : "",
+                        sizes[random.nextInt(sizes.length)],
+                        statuses[random.nextInt(statuses.length)]
+                ));
+            }
+        }
+        
+        doc.rebuildIdentifiers();
+        doc.getChanges().clear();
+        
+        return doc;
+    }
+}